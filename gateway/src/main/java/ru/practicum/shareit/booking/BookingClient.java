@@ -3,50 +3,106 @@ package ru.practicum.shareit.booking;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
+    private final String itemsUrl;
+
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
+        itemsUrl = serverUrl + "/items";
     }
 
+    // Вещь в ответе содержит последнее и следующее бронирование
     public ResponseEntity<Object> createBooking(Long userId, BookingDto requestDto) {
-        return post("", userId, requestDto);
+        return invalidateAfter(() -> post("", userId, requestDto), itemKeyPrefix(requestDto.getItemId()));
+    }
+
+    public ResponseEntity<Object> createBookings(Long userId, List<BookingDto> requestDtos) {
+        return invalidateAfter(() -> post("/bulk", userId, requestDtos), requestDtos.stream()
+                .map(BookingDto::getItemId)
+                .distinct()
+                .map(this::itemKeyPrefix)
+                .toArray(String[]::new));
     }
 
+    // Вещь подтверждаемого бронирования шлюзу неизвестна, поэтому сбрасываются все вещи
     public ResponseEntity<Object> updateBooking(Long userId, Long bookingId, Boolean approved) {
         Map<String, Object> parameters = Map.of("approved", approved);
-        return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
+        return invalidateAfter(() -> patch("/" + bookingId + "?approved={approved}", userId, parameters, null),
+                itemsUrl);
     }
 
     public ResponseEntity<Object> getBookingById(Long bookingId, Long userId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingsByUser(Long userId, BookingState state) {
-        Map<String, Object> parameters = Map.of("state", state.name());
-        return get("?state={state}", userId, parameters);
+    public ResponseEntity<Object> getBookingsByUser(Long userId, BookingState state, Integer from, Integer size,
+                                                    String cursor) {
+        Map<String, Object> parameters = pagingParameters(state, from, size, cursor);
+        return get("?" + pagingQuery(parameters), userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(Long userId, BookingState state) {
+    public ResponseEntity<Object> getBookingsByOwner(Long userId, BookingState state, Integer from, Integer size,
+                                                     String cursor) {
+        Map<String, Object> parameters = pagingParameters(state, from, size, cursor);
+        return get("/owner?" + pagingQuery(parameters), userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamBookingsByOwner(Long userId, BookingState state) {
         Map<String, Object> parameters = Map.of("state", state.name());
-        return get("/owner?state={state}", userId, parameters);
+        return stream("/owner?state={state}", userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> subscribe(Long userId) {
+        return stream("/stream", userId, null, MediaType.TEXT_EVENT_STREAM);
+    }
+
+    private String itemKeyPrefix(Long itemId) {
+        return itemsUrl + "/" + itemId + "#";
+    }
+
+    private static String pagingQuery(Map<String, Object> parameters) {
+        return parameters.keySet().stream()
+                .map(name -> name + "={" + name + "}")
+                .collect(Collectors.joining("&"));
+    }
+
+    private static Map<String, Object> pagingParameters(BookingState state, Integer from, Integer size,
+                                                        String cursor) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        // Без size сервер отдаёт все бронирования
+        if (size != null) {
+            parameters.put("size", size);
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.booking;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -15,9 +18,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingState;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -33,6 +39,14 @@ public class BookingController {
 		return bookingClient.createBooking(userId, requestDto);
 	}
 
+	@PostMapping("/bulk")
+	@ResponseStatus(HttpStatus.CREATED)
+	public ResponseEntity<Object> createBookings(@RequestBody List<@Valid BookingDto> requestDtos,
+												 @RequestHeader("X-Sharer-User-Id") Long userId) {
+		log.info("Creating {} bookings, userId={}", requestDtos.size(), userId);
+		return bookingClient.createBookings(userId, requestDtos);
+	}
+
 	@PatchMapping("/{bookingId}")
 	public ResponseEntity<Object> updateBooking(@RequestParam Boolean approved,
 												@PathVariable Long bookingId,
@@ -50,15 +64,35 @@ public class BookingController {
 
 	@GetMapping
 	public ResponseEntity<Object> getBookingsByUser(@RequestParam(defaultValue = "ALL") BookingState state,
+													@PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+													@Positive @RequestParam(required = false) Integer size,
+													@RequestParam(required = false) String cursor,
 													@RequestHeader("X-Sharer-User-Id") Long userId) {
 		log.info("Запрос на получение списка бронирований пользователя с id = {} с параметром '{}'", userId, state);
-		return bookingClient.getBookingsByUser(userId, state);
+		return bookingClient.getBookingsByUser(userId, state, from, size, cursor);
 	}
 
 	@GetMapping("/owner")
 	public ResponseEntity<Object> getBookingsByOwner(@RequestParam(defaultValue = "ALL") BookingState state,
+													 @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+													 @Positive @RequestParam(required = false) Integer size,
+													 @RequestParam(required = false) String cursor,
 													 @RequestHeader("X-Sharer-User-Id") Long userId) {
 		log.info("Запрос на получение списка бронирований владельца с id = {} с параметром '{}'", userId, state);
-		return bookingClient.getBookingsByOwner(userId, state);
+		return bookingClient.getBookingsByOwner(userId, state, from, size, cursor);
+	}
+
+	@GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamBookingsByOwner(@RequestParam(defaultValue = "ALL") BookingState state,
+																	   @RequestHeader("X-Sharer-User-Id") Long userId) {
+		log.info("Запрос на потоковое получение списка бронирований владельца с id = {} с параметром '{}'",
+				userId, state);
+		return bookingClient.streamBookingsByOwner(userId, state);
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> subscribe(@RequestHeader("X-Sharer-User-Id") Long userId) {
+		log.info("Запрос на подписку на события бронирований пользователя с id = {}", userId);
+		return bookingClient.subscribe(userId);
 	}
 }
\ No newline at end of file
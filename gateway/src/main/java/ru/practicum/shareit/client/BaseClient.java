@@ -1,24 +1,74 @@
 package ru.practicum.shareit.client;
 
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class BaseClient {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+
+    // Заголовки соединения и длина тела выставляются заново при ответе клиенту
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-authenticate",
+            "proxy-authorization", "te", "trailer", "transfer-encoding", "upgrade", "content-length");
+
     protected final RestTemplate rest;
+    private boolean passThrough = true;
+    private ClientHttpRequestFactory streamRequestFactory;
+    private ResponseCache responseCache;
+    private SingleFlight singleFlight;
 
     public BaseClient(RestTemplate rest) {
         this.rest = rest;
     }
 
+    @Autowired
+    public void setPassThrough(@Value("${shareit-server.pass-through:true}") boolean passThrough) {
+        this.passThrough = passThrough;
+    }
+
+    @Autowired
+    public void setStreamRequestFactory(@Qualifier("serverStreamRequestFactory")
+                                        ClientHttpRequestFactory streamRequestFactory) {
+        this.streamRequestFactory = streamRequestFactory;
+    }
+
+    @Autowired
+    public void setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Autowired
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
     protected ResponseEntity<Object> get(String path) {
         return get(path, null, null);
     }
@@ -31,6 +81,21 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
     }
 
+    // Ответ кэшируется в шлюзе и перепроверяется по ETag; при токене согласованности перепроверка обязательна
+    protected ResponseEntity<Object> cachedGet(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        if (responseCache == null || !passThrough) {
+            return get(path, userId, parameters);
+        }
+        URI uri = expand(path, parameters);
+        return responseCache.get(uri + "#" + userId, consistencyToken() != null,
+                etag -> coalesce(uri, userId, etag, () -> fetch(uri, userId, etag)));
+    }
+
+    // Одинаковые одновременные запросы отправляются на сервер один раз, остальные получают тот же ответ
+    protected ResponseEntity<Object> coalescedGet(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        return coalesce(expand(path, parameters), userId, null, () -> get(path, userId, parameters));
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return post(path, null, null, body);
     }
@@ -79,9 +144,97 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId,
+                                                           @Nullable Map<String, Object> parameters) {
+        return stream(path, userId, parameters, MediaType.APPLICATION_NDJSON);
+    }
+
+    protected ResponseEntity<StreamingResponseBody> stream(String path, Long userId,
+                                                           @Nullable Map<String, Object> parameters,
+                                                           MediaType accept) {
+        URI uri = expand(path, parameters);
+        ClientHttpResponse response;
+        try {
+            ClientHttpRequestFactory requestFactory = streamRequestFactory != null
+                    ? streamRequestFactory
+                    : rest.getRequestFactory();
+            ClientHttpRequest request = requestFactory.createRequest(uri, HttpMethod.GET);
+            request.getHeaders().setAccept(List.of(accept));
+            if (userId != null) {
+                request.getHeaders().set("X-Sharer-User-Id", String.valueOf(userId));
+            }
+            forwardConsistencyToken(request.getHeaders());
+            response = request.execute();
+        } catch (IOException e) {
+            return poolExhausted(new ResourceAccessException("Ошибка запроса к серверу: " + e.getMessage(), e));
+        }
+
+        try {
+            ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+            if (response.getHeaders().getContentType() != null) {
+                responseBuilder.contentType(response.getHeaders().getContentType());
+            }
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                try (response) {
+                    byte[] body = response.getBody().readAllBytes();
+                    return responseBuilder.body(out -> out.write(body));
+                }
+            }
+            return responseBuilder.body(out -> {
+                try (response; InputStream in = response.getBody()) {
+                    byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                        out.flush();
+                    }
+                }
+            });
+        } catch (IOException e) {
+            response.close();
+            throw new ResourceAccessException("Ошибка чтения ответа сервера: " + e.getMessage(), e);
+        }
+    }
+
+    // Запись меняет и ответы других ресурсов, поэтому их кэш в шлюзе сбрасывается вместе со своим
+    protected ResponseEntity<Object> invalidateAfter(Supplier<ResponseEntity<Object>> write, String... keyPrefixes) {
+        try {
+            return write.get();
+        } finally {
+            if (responseCache != null) {
+                for (String keyPrefix : keyPrefixes) {
+                    responseCache.invalidate(keyPrefix);
+                }
+            }
+        }
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        if (responseCache != null && method != HttpMethod.GET) {
+            try {
+                return send(method, path, parameters, requestEntity);
+            } finally {
+                responseCache.invalidate(rest.getUriTemplateHandler().expand("").toString());
+            }
+        }
+        return send(method, path, parameters, requestEntity);
+    }
+
+    private <T> ResponseEntity<Object> send(HttpMethod method, String path, @Nullable Map<String, Object> parameters,
+                                            HttpEntity<T> requestEntity) {
+        try {
+            return passThrough
+                    ? passThrough(method, path, parameters, requestEntity)
+                    : exchange(method, path, parameters, requestEntity);
+        } catch (ResourceAccessException e) {
+            return poolExhausted(e);
+        }
+    }
 
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path,
+                                                @Nullable Map<String, Object> parameters,
+                                                HttpEntity<T> requestEntity) {
         ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
@@ -95,6 +248,83 @@ public class BaseClient {
         return prepareGatewayResponse(shareitServerResponse);
     }
 
+    private <T> ResponseEntity<Object> passThrough(HttpMethod method, String path,
+                                                   @Nullable Map<String, Object> parameters,
+                                                   HttpEntity<T> requestEntity) {
+        ResponseEntity<byte[]> shareitServerResponse;
+        try {
+            if (parameters != null) {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class, parameters);
+            } else {
+                shareitServerResponse = rest.exchange(path, method, requestEntity, byte[].class);
+            }
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(copyHeaders(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
+        }
+        return ResponseEntity.status(shareitServerResponse.getStatusCode())
+                .headers(copyHeaders(shareitServerResponse.getHeaders()))
+                .body(shareitServerResponse.getBody());
+    }
+
+    private ResponseEntity<byte[]> fetch(URI uri, Long userId, @Nullable String etag) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (etag != null) {
+            headers.setIfNoneMatch(etag);
+        }
+        try {
+            ResponseEntity<byte[]> response = rest.exchange(uri, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(copyHeaders(response.getHeaders()))
+                    .body(response.getBody());
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(copyHeaders(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
+        } catch (ResourceAccessException e) {
+            return poolExhausted(e);
+        }
+    }
+
+    // Пул соединений ограничивает число запросов к серверу; не дождавшийся соединения запрос получает 503
+    private static <T> ResponseEntity<T> poolExhausted(ResourceAccessException e) {
+        if (!(e.getCause() instanceof ConnectionRequestTimeoutException)) {
+            throw e;
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    private <T> T coalesce(URI uri, Long userId, @Nullable String etag, Supplier<T> call) {
+        if (singleFlight == null) {
+            return call.get();
+        }
+        String token = consistencyToken();
+        String key = HttpMethod.GET.name() + " " + uri + "#" + userId
+                + (etag != null ? "#" + etag : "") + (token != null ? "#" + token : "");
+        return singleFlight.execute(key, call);
+    }
+
+    private URI expand(String path, @Nullable Map<String, Object> parameters) {
+        return parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+    }
+
+    private static HttpHeaders copyHeaders(@Nullable HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders != null) {
+            serverHeaders.forEach((name, values) -> {
+                if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.addAll(name, values);
+                }
+            });
+        }
+        return headers;
+    }
+
     private HttpHeaders defaultHeaders(Long userId) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -102,9 +332,25 @@ public class BaseClient {
         if (userId != null) {
             headers.set("X-Sharer-User-Id", String.valueOf(userId));
         }
+        forwardConsistencyToken(headers);
         return headers;
     }
 
+    // Токен последней записи клиента позволяет серверу прочитать её с основной базы, а не с отстающей реплики
+    private static void forwardConsistencyToken(HttpHeaders headers) {
+        String token = consistencyToken();
+        if (token != null) {
+            headers.set(CONSISTENCY_TOKEN_HEADER, token);
+        }
+    }
+
+    private static String consistencyToken() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getHeader(CONSISTENCY_TOKEN_HEADER);
+        }
+        return null;
+    }
+
     private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
         if (response.getStatusCode().is2xxSuccessful()) {
             return response;
@@ -0,0 +1,89 @@
+package ru.practicum.shareit.client;
+
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Клиент JDK не открывает второе соединение, когда сервер исчерпал лимит потоков на соединение,
+// а сразу завершает запрос ошибкой. Лишние запросы ждут свободный поток, как в пуле соединений HTTP/1.1
+class Http2StreamLimiter implements ClientHttpRequestInterceptor {
+    private final Semaphore streams;
+    private final Duration leaseTimeout;
+
+    Http2StreamLimiter(int maxConcurrentStreams, Duration leaseTimeout) {
+        this.streams = new Semaphore(maxConcurrentStreams, true);
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        try {
+            if (!streams.tryAcquire(leaseTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new ConnectionRequestTimeoutException("Нет свободного потока HTTP/2 к серверу");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание потока HTTP/2 прервано");
+        }
+        try {
+            return new StreamResponse(execution.execute(request, body));
+        } catch (IOException | RuntimeException e) {
+            streams.release();
+            throw e;
+        }
+    }
+
+    // Поток освобождается, когда RestTemplate закрывает прочитанный ответ
+    private class StreamResponse implements ClientHttpResponse {
+        private final ClientHttpResponse response;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        StreamResponse(ClientHttpResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return response.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return response.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                response.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    streams.release();
+                }
+            }
+        }
+    }
+}
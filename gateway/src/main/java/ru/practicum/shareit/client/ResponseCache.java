@@ -0,0 +1,134 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Ответы сервера с сильным ETag. Свежая запись отдаётся сразу, устаревшая в пределах окна
+// stale-while-revalidate отдаётся сразу и перепроверяется в фоне, более старая перепроверяется через If-None-Match
+@Slf4j
+@Component
+public class ResponseCache {
+    private final Cache<String, Entry> cache;
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generation = new AtomicLong();
+    private final Executor executor;
+    private final long maxAge;
+    private final long staleWhileRevalidate;
+
+    public ResponseCache(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                         Executor executor,
+                         MeterRegistry meterRegistry,
+                         @Value("${shareit-server.cache.maximum-weight:67108864}") long maximumWeight,
+                         @Value("${shareit-server.cache.max-age:1s}") Duration maxAge,
+                         @Value("${shareit-server.cache.stale-while-revalidate:10s}") Duration staleWhileRevalidate) {
+        this.executor = executor;
+        this.maxAge = maxAge.toNanos();
+        this.staleWhileRevalidate = staleWhileRevalidate.toNanos();
+        // Вес записи — размер тела в байтах
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String key, Entry entry) -> entry.body().length + 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+    }
+
+    // fetcher получает ETag сохранённого ответа или null и возвращает ответ сервера
+    public ResponseEntity<Object> get(String key, boolean revalidate,
+                                      Function<String, ResponseEntity<byte[]>> fetcher) {
+        Entry entry = cache.getIfPresent(key);
+        long loadGeneration = generation.get();
+        if (entry == null) {
+            return store(key, null, loadGeneration, fetcher.apply(null));
+        }
+        long age = System.nanoTime() - entry.validatedAt();
+        if (!revalidate && age <= maxAge) {
+            return entry.toResponse();
+        }
+        if (!revalidate && age <= maxAge + staleWhileRevalidate) {
+            revalidateInBackground(key, entry, fetcher);
+            return entry.toResponse();
+        }
+        return store(key, entry, loadGeneration, fetcher.apply(entry.etag()));
+    }
+
+    public void invalidate(String keyPrefix) {
+        generation.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.startsWith(keyPrefix));
+    }
+
+    private void revalidateInBackground(String key, Entry entry, Function<String, ResponseEntity<byte[]>> fetcher) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        long loadGeneration = generation.get();
+        try {
+            executor.execute(() -> {
+                try {
+                    store(key, entry, loadGeneration, fetcher.apply(entry.etag()));
+                } catch (RuntimeException e) {
+                    log.debug("Не удалось перепроверить ответ {}: {}", key, e.getMessage());
+                } finally {
+                    revalidating.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            revalidating.remove(key);
+        }
+    }
+
+    // Ответ, загруженный до очистки кэша записью, не сохраняется
+    private ResponseEntity<Object> store(String key, @Nullable Entry previous, long loadGeneration,
+                                         ResponseEntity<byte[]> response) {
+        if (previous != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            Entry renewed = previous.renewed();
+            cache.asMap().replace(key, previous, renewed);
+            return renewed.toResponse();
+        }
+        String etag = response.getHeaders().getETag();
+        if (response.getStatusCode().is2xxSuccessful() && etag != null && !etag.startsWith("W/")) {
+            byte[] body = response.getBody() != null ? response.getBody() : new byte[0];
+            Entry entry = new Entry(etag, response.getStatusCode(),
+                    HttpHeaders.readOnlyHttpHeaders(response.getHeaders()), body, System.nanoTime());
+            if (loadGeneration == generation.get()) {
+                cache.put(key, entry);
+            }
+            return entry.toResponse();
+        }
+        cache.invalidate(key);
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(response.getBody());
+    }
+
+    private record Entry(String etag, HttpStatusCode status, HttpHeaders headers, byte[] body, long validatedAt) {
+
+        private Entry renewed() {
+            return new Entry(etag, status, headers, body, System.nanoTime());
+        }
+
+        private ResponseEntity<Object> toResponse() {
+            return ResponseEntity.status(status).headers(headers).body(body);
+        }
+    }
+}
\ No newline at end of file
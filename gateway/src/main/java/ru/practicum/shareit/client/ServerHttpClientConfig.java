@@ -0,0 +1,125 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+
+// Все клиенты сервера работают через один пул соединений
+@Configuration
+public class ServerHttpClientConfig {
+    private static final String CLIENT_NAME = "shareit-server";
+
+    @Bean
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            MeterRegistry meterRegistry,
+            @Value("${shareit-server.pool.max-total:500}") int maxTotal,
+            @Value("${shareit-server.pool.max-per-route:500}") int maxPerRoute,
+            @Value("${shareit-server.pool.time-to-live:5m}") Duration timeToLive,
+            @Value("${shareit-server.pool.connect-timeout:2s}") Duration connectTimeout) {
+        Timer leaseTimer = Timer.builder("httpcomponents.httpclient.pool.lease")
+                .description("Время ожидания соединения из пула")
+                .tag("httpclient", CLIENT_NAME)
+                .register(meterRegistry);
+        TimedConnectionManager connectionManager = new TimedConnectionManager(leaseTimer);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                .build());
+        return connectionManager;
+    }
+
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, CLIENT_NAME);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            @Value("${shareit-server.pool.idle-eviction:30s}") Duration idleEviction,
+            @Value("${shareit-server.pool.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${shareit-server.pool.response-timeout:30s}") Duration responseTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(serverConnectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleEviction))
+                .setDefaultRequestConfig(requestConfig(leaseTimeout, responseTimeout))
+                .build();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "shareit-server.http2", havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory serverRequestFactory(CloseableHttpClient serverHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+    }
+
+    // Режим h2c: клиент JDK переводит соединение на HTTP/2 и мультиплексирует по нему параллельные запросы.
+    // Число потоков не больше maxConcurrentStreams Tomcat (по умолчанию 100)
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "shareit-server.http2", havingValue = "true")
+    public ClientHttpRequestFactory serverHttp2RequestFactory(
+            @Value("${shareit-server.pool.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.pool.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${shareit-server.pool.response-timeout:30s}") Duration responseTimeout,
+            @Value("${shareit-server.http2.max-concurrent-streams:100}") int maxConcurrentStreams) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(responseTimeout);
+        return new InterceptingClientHttpRequestFactory(requestFactory,
+                List.of(new Http2StreamLimiter(maxConcurrentStreams, leaseTimeout)));
+    }
+
+    // Потоки и подписки на события молчат дольше обычного ответа, поэтому ждут до таймаута асинхронного запроса.
+    // Они остаются на HTTP/1.1, чтобы долгий поток не делил соединение с короткими запросами
+    @Bean
+    public ClientHttpRequestFactory serverStreamRequestFactory(
+            CloseableHttpClient serverHttpClient,
+            @Value("${shareit-server.pool.lease-timeout:5s}") Duration leaseTimeout,
+            @Value("${spring.mvc.async.request-timeout:10m}") Duration streamTimeout) {
+        RequestConfig streamConfig = requestConfig(leaseTimeout, streamTimeout);
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(streamConfig);
+            return context;
+        });
+        return requestFactory;
+    }
+
+    private static RequestConfig requestConfig(Duration leaseTimeout, Duration responseTimeout) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(leaseTimeout))
+                .setResponseTimeout(Timeout.of(responseTimeout))
+                .build();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Одинаковые одновременные запросы ждут ответа первого вместо собственного обращения к серверу
+@Slf4j
+@Component
+public class SingleFlight {
+    private final Map<String, CompletableFuture<Object>> calls = new ConcurrentHashMap<>();
+    private final long maxWait;
+    private final Counter leaders;
+    private final Counter collapsed;
+    private final Counter timeouts;
+
+    public SingleFlight(MeterRegistry meterRegistry,
+                        @Value("${shareit-server.single-flight.max-wait:2s}") Duration maxWait) {
+        this.maxWait = maxWait.toMillis();
+        leaders = meterRegistry.counter("shareit.single-flight.requests", "result", "leader");
+        collapsed = meterRegistry.counter("shareit.single-flight.requests", "result", "collapsed");
+        timeouts = meterRegistry.counter("shareit.single-flight.requests", "result", "timeout");
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = calls.putIfAbsent(key, own);
+        if (inFlight == null) {
+            leaders.increment();
+            try {
+                T result = call.get();
+                own.complete(result);
+                return result;
+            } catch (RuntimeException e) {
+                own.completeExceptionally(e);
+                throw e;
+            } finally {
+                calls.remove(key, own);
+            }
+        }
+        try {
+            T result = (T) inFlight.get(maxWait, TimeUnit.MILLISECONDS);
+            collapsed.increment();
+            return result;
+        } catch (ExecutionException e) {
+            collapsed.increment();
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Не дождавшись первого запроса, ожидающий обращается к серверу сам
+            timeouts.increment();
+            log.debug("Истекло ожидание одинакового запроса {}", key);
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return call.get();
+        }
+    }
+}
\ No newline at end of file
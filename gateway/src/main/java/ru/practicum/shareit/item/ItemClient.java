@@ -4,48 +4,79 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
+    private final String requestsUrl;
+
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
+        requestsUrl = serverUrl + "/requests";
     }
 
+    // Запросы в ответе содержат ответившие на них вещи, в том числе в списке /requests/all
     public ResponseEntity<Object> createItem(Long userId, ItemDto dto) {
-        return post("", userId, dto);
+        if (dto.getRequestId() == null) {
+            return post("", userId, dto);
+        }
+        return invalidateAfter(() -> post("", userId, dto), requestsUrl);
+    }
+
+    public ResponseEntity<Object> createItems(Long userId, List<ItemDto> dtos) {
+        if (dtos.stream().allMatch(dto -> dto.getRequestId() == null)) {
+            return post("/bulk", userId, dtos);
+        }
+        return invalidateAfter(() -> post("/bulk", userId, dtos), requestsUrl);
     }
 
+    // Изменённая вещь может быть ответом на запрос, а шлюз этого не знает
     public ResponseEntity<Object> updateItem(Long itemId, ItemDto dto, Long userId) {
-        return patch("/" + itemId, userId, dto);
+        return invalidateAfter(() -> patch("/" + itemId, userId, dto), requestsUrl);
     }
 
     public ResponseEntity<Object> getItemById(Long itemId, Long userId) {
-        return get("/" + itemId, userId);
+        return cachedGet("/" + itemId, userId, null);
+    }
+
+    public ResponseEntity<Object> getAllItemsByOwner(Long userId, Integer from, Integer size) {
+        // Без size сервер отдаёт все вещи владельца
+        if (size == null) {
+            return get("?from={from}", userId, Map.of("from", from));
+        }
+        Map<String, Object> parameters = Map.of("from", from, "size", size);
+        return get("?from={from}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getAllItemsByOwner(Long userId) {
-        return get("", userId);
+    public ResponseEntity<StreamingResponseBody> streamAllItemsByOwner(Long userId) {
+        return stream("", userId, null);
     }
 
-    public ResponseEntity<Object> searchItems(String text, Long userId) {
-        Map<String, Object> parameters = Map.of("text", text);
-        return get("/search?text={text}", userId, parameters);
+    public ResponseEntity<Object> searchItems(String text, Integer from, Integer size, Long userId) {
+        // Без size сервер отдаёт все найденные вещи
+        if (size == null) {
+            return coalescedGet("/search?text={text}&from={from}", userId, Map.of("text", text, "from", from));
+        }
+        Map<String, Object> parameters = Map.of("text", text, "from", from, "size", size);
+        return coalescedGet("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
     public ResponseEntity<Object> createComment(Long itemId, Long userId, CommentDto dto) {
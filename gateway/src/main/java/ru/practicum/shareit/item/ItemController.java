@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -15,9 +18,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -33,6 +39,14 @@ public class ItemController {
         return itemClient.createItem(userId, dto);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ResponseEntity<Object> createItems(@RequestBody List<@Valid ItemDto> dtos,
+                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на добавление {} вещей пользователю с id = {}", dtos.size(), userId);
+        return itemClient.createItems(userId, dtos);
+    }
+
     @PatchMapping("/{itemId}")
     public ResponseEntity<Object> updateItem(@Valid @PathVariable Long itemId,
                                              @RequestBody ItemDto dto,
@@ -49,16 +63,26 @@ public class ItemController {
     }
 
     @GetMapping
-    public ResponseEntity<Object> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Запрос на получение списка всех вещей пользователя с id = {}", userId);
-        return itemClient.getAllItemsByOwner(userId);
+    public ResponseEntity<Object> getAllItemsByOwner(@PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                     @Positive @RequestParam(required = false) Integer size,
+                                                     @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на получение списка вещей пользователя с id = {}, from = {}, size = {}", userId, from, size);
+        return itemClient.getAllItemsByOwner(userId, from, size);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на потоковое получение списка всех вещей пользователя с id = {}", userId);
+        return itemClient.streamAllItemsByOwner(userId);
     }
 
     @GetMapping("/search")
     public ResponseEntity<Object> searchItems(@RequestParam String text,
+                                              @PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                              @Positive @RequestParam(required = false) Integer size,
                                               @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Запрос на поиск вещей пользователя с id = {} с текстом '{}'", userId, text);
-        return itemClient.searchItems(text, userId);
+        return itemClient.searchItems(text, from, size, userId);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -3,23 +3,29 @@ package ru.practicum.shareit.request;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
     @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                             ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
     }
@@ -32,11 +38,31 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllItemRequests() {
-        return get("/all");
+    public ResponseEntity<Object> getAllItemRequests(Long userId, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("from", from);
+        String query = "/all?from={from}";
+        // Без size сервер отдаёт все запросы других пользователей
+        if (size != null) {
+            parameters.put("size", size);
+            query += "&size={size}";
+        }
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            query += "&cursor={cursor}";
+        }
+        return cachedGet(query, userId, parameters);
+    }
+
+    public ResponseEntity<StreamingResponseBody> streamAllItemRequests(Long userId) {
+        return stream("/all", userId, null);
     }
 
     public ResponseEntity<Object> getItemRequestById(Long requestId) {
-        return get("/" + requestId);
+        return cachedGet("/" + requestId, null, null);
+    }
+
+    public ResponseEntity<StreamingResponseBody> subscribe(Long userId) {
+        return stream("/stream", userId, null, MediaType.TEXT_EVENT_STREAM);
     }
 }
\ No newline at end of file
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.request;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,8 +14,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
 @Slf4j
@@ -37,9 +42,26 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Object> getAllItemRequests() {
-        log.info("Запрос на получение списка всех запросов, созданных другими пользователями");
-        return itemRequestClient.getAllItemRequests();
+    public ResponseEntity<Object> getAllItemRequests(@PositiveOrZero @RequestParam(defaultValue = "0") Integer from,
+                                                     @Positive @RequestParam(required = false) Integer size,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на получение списка запросов, созданных другими пользователями, от пользователя с id = {}",
+                userId);
+        return itemRequestClient.getAllItemRequests(userId, from, size, cursor);
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на потоковое получение списка запросов других пользователей от пользователя с id = {}",
+                userId);
+        return itemRequestClient.streamAllItemRequests(userId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> subscribe(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на подписку на ответы на запросы пользователя с id = {}", userId);
+        return itemRequestClient.subscribe(userId);
     }
 
     @GetMapping("/{requestId}")
@@ -4,8 +4,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -15,30 +16,39 @@ import ru.practicum.shareit.user.dto.UserDtoUpdate;
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
+    private final String itemsUrl;
+
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory requestFactory) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(() -> new HttpComponentsClientHttpRequestFactory())
+                        .requestFactory(() -> requestFactory)
                         .build()
         );
+        itemsUrl = serverUrl + "/items";
     }
 
     public ResponseEntity<Object> getAllUsers() {
         return get("");
     }
 
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return stream("", null, null);
+    }
+
     public ResponseEntity<Object> createUser(UserDto dto) {
         return post("", dto);
     }
 
+    // Имя пользователя входит в отзывы, которые отдаются вместе с вещью
     public ResponseEntity<Object> updateUser(Long userId, UserDtoUpdate dto) {
-        return patch("/" + userId, userId, dto);
+        return invalidateAfter(() -> patch("/" + userId, userId, dto), itemsUrl);
     }
 
     public ResponseEntity<Object> getUserById(Long userId) {
-        return get("/" + userId);
+        return cachedGet("/" + userId, null, null);
     }
 
     public ResponseEntity<Object> deleteUser(Long userId) {
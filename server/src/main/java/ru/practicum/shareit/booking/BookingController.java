@@ -1,8 +1,11 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,10 +16,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInput;
+import ru.practicum.shareit.stream.NdjsonResponse;
 
-import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -24,6 +30,7 @@ import java.util.Collection;
 @RequestMapping("/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -34,6 +41,14 @@ public class BookingController {
         return bookingService.createBooking(userId, dto);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<BookingDto> createBookings(@RequestBody List<BookingDtoInput> dtos,
+                                           @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на добавление {} бронирований пользователя с id = {}", dtos.size(), userId);
+        return bookingService.createBookings(userId, dtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingDto updateBooking(@RequestParam Boolean approved,
                                     @PathVariable Long bookingId,
@@ -50,16 +65,37 @@ public class BookingController {
     }
 
     @GetMapping
-    public Collection<BookingDto> getBookingsByUser(@RequestParam(defaultValue = "ALL") String state,
-                                                    @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<List<BookingDto>> getBookingsByUser(@RequestParam(defaultValue = "ALL") String state,
+                                                              @RequestParam(defaultValue = "0") Integer from,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Запрос на получение списка бронирований пользователя с id = {} с параметром '{}'", userId, state);
-        return bookingService.getBookingsByUser(userId, state);
+        return bookingService.getBookingsByUser(userId, state, from, size, cursor).toResponseEntity();
     }
 
     @GetMapping("/owner")
-    public Collection<BookingDto> getBookingsByOwner(@RequestParam(defaultValue = "ALL") String state,
-                                                     @RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<List<BookingDto>> getBookingsByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                                               @RequestParam(defaultValue = "0") Integer from,
+                                                               @RequestParam(required = false) Integer size,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Запрос на получение списка бронирований владельца с id = {} с параметром '{}'", userId, state);
-        return bookingService.getBookingsByOwner(userId, state);
+        return bookingService.getBookingsByOwner(userId, state, from, size, cursor).toResponseEntity();
+    }
+
+    @GetMapping(value = "/owner", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamBookingsByOwner(@RequestParam(defaultValue = "ALL") String state,
+                                                                       @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на потоковое получение списка бронирований владельца с id = {} с параметром '{}'",
+                userId, state);
+        return NdjsonResponse.<BookingDto>of(objectMapper,
+                action -> bookingService.streamBookingsByOwner(userId, state, action));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на подписку на события бронирований пользователя с id = {}", userId);
+        return bookingService.subscribe(userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Быстрый отказ по занятым интервалам вещи. Окончательную проверку делает BookingServiceImpl в базе данных,
+// поэтому индекс может отставать: записи других экземпляров он увидит после истечения expire-after-write
+@Slf4j
+@Component
+public class BookingIntervalIndex {
+    static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, ItemIntervals> intervals;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.booking.index.maximum-size:10000}") long maximumSize,
+                                @Value("${shareit.booking.index.expire-after-write:1m}") Duration expireAfterWrite) {
+        this.bookingRepository = bookingRepository;
+        intervals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, intervals, "bookingIntervals");
+    }
+
+    public void reserve(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        ItemIntervals itemIntervals = getIntervals(itemId);
+        synchronized (itemIntervals) {
+            itemIntervals.removeExpired(LocalDateTime.now());
+            if (itemIntervals.overlaps(booking.getStart(), booking.getEnd())) {
+                log.error("Вещь с id = {} уже забронирована на период {} - {}", itemId, booking.getStart(),
+                        booking.getEnd());
+                throw new ValidationException("Вещь с id = " + itemId + " уже забронирована на это время");
+            }
+            itemIntervals.merge(booking.getStart(), booking.getEnd());
+        }
+        TransactionCallbacks.onRollback(() -> invalidate(itemId));
+    }
+
+    // Интервалы вещи перечитываются из базы: сразу для текущей транзакции и после фиксации отказа для остальных
+    public void release(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        invalidate(itemId);
+        TransactionCallbacks.afterCommit(() -> invalidate(itemId));
+    }
+
+    public void invalidate(Long itemId) {
+        intervals.invalidate(itemId);
+    }
+
+    private ItemIntervals getIntervals(Long itemId) {
+        ItemIntervals itemIntervals = intervals.get(itemId, id -> new ItemIntervals());
+        synchronized (itemIntervals) {
+            if (!itemIntervals.loaded) {
+                log.debug("Загрузка бронирований вещи с id = {} в индекс", itemId);
+                bookingRepository.findAllByItemIdAndStatusInAndEndAfterOrderByStartAsc(itemId, BLOCKING_STATUSES,
+                                LocalDateTime.now())
+                        .forEach(booking -> itemIntervals.merge(booking.getStart(), booking.getEnd()));
+                itemIntervals.loaded = true;
+            }
+        }
+        return itemIntervals;
+    }
+
+    private static class ItemIntervals {
+        final NavigableMap<LocalDateTime, LocalDateTime> ends = new TreeMap<>();
+        boolean loaded;
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = ends.floorEntry(start);
+            if (before != null && before.getValue().isAfter(start)) {
+                return true;
+            }
+            LocalDateTime after = ends.ceilingKey(start);
+            return after != null && after.isBefore(end);
+        }
+
+        // Пересекающиеся интервалы объединяются, поэтому отдельный интервал из индекса не удаляется
+        void merge(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = ends.floorEntry(start);
+            if (before != null && before.getValue().isAfter(start)) {
+                if (end.isAfter(before.getValue())) {
+                    ends.put(before.getKey(), end);
+                }
+                return;
+            }
+            ends.put(start, end);
+        }
+
+        void removeExpired(LocalDateTime now) {
+            while (!ends.isEmpty() && !ends.firstEntry().getValue().isAfter(now)) {
+                ends.pollFirstEntry();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -8,6 +8,8 @@ import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 
+import java.time.temporal.ChronoUnit;
+
 @UtilityClass
 public class BookingMapper {
     public BookingDto toBookingDto(Booking booking) {
@@ -21,10 +23,11 @@ public class BookingMapper {
                 .build();
     }
 
+    // База данных округляет время до микросекунд, поэтому сущность сразу получает сохраняемое значение
     public Booking toBooking(BookingDtoInput dto, Item item, User booker) {
         return Booking.builder()
-                .start(dto.getStart())
-                .end(dto.getEnd())
+                .start(dto.getStart().truncatedTo(ChronoUnit.MICROS))
+                .end(dto.getEnd().truncatedTo(ChronoUnit.MICROS))
                 .item(item)
                 .booker(booker)
                 .status(BookingStatus.WAITING)
@@ -1,45 +1,104 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.stream.EntityStreams;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Collection<Booking> findAllByBookerId(Long userId, Sort sort);
+    @Override
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findById(Long id);
 
-    Collection<Booking> findAllByBookerIdAndEndAfter(Long userId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByBookerId(Long userId, ScrollPosition position, Limit limit, Sort sort);
 
-    Collection<Booking> findAllByBookerIdAndEndBefore(Long userId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByBookerIdAndEndAfter(Long userId, LocalDateTime now, ScrollPosition position, Limit limit,
+                                                 Sort sort);
 
-    Collection<Booking> findAllByBookerIdAndStartAfter(Long userId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByBookerIdAndEndBefore(Long userId, LocalDateTime now, ScrollPosition position, Limit limit,
+                                                  Sort sort);
 
-    Collection<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByBookerIdAndStartAfter(Long userId, LocalDateTime now, ScrollPosition position,
+                                                   Limit limit, Sort sort);
 
-    Collection<Booking> findAllByItemOwnerId(Long userId, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, ScrollPosition position,
+                                               Limit limit, Sort sort);
 
-    Collection<Booking> findAllByItemOwnerIdAndEndAfter(Long userId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByItemOwnerId(Long userId, ScrollPosition position, Limit limit, Sort sort);
 
-    Collection<Booking> findAllByItemOwnerIdAndEndBefore(Long userId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByItemOwnerIdAndEndAfter(Long userId, LocalDateTime now, ScrollPosition position,
+                                                    Limit limit, Sort sort);
 
-    Collection<Booking> findAllByItemOwnerIdAndStartAfter(Long userId, LocalDateTime now, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByItemOwnerIdAndEndBefore(Long userId, LocalDateTime now, ScrollPosition position,
+                                                     Limit limit, Sort sort);
 
-    Collection<Booking> findAllByItemOwnerIdAndStatus(Long bookerId, BookingStatus status, Sort sort);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByItemOwnerIdAndStartAfter(Long userId, LocalDateTime now, ScrollPosition position,
+                                                      Limit limit, Sort sort);
 
-    Optional<Booking> findTopByItemIdAndItemOwnerIdAndEndBeforeAndStatusOrderByEndDesc(Long itemId, Long ownerId,
-                                                                                       LocalDateTime now,
-                                                                                       BookingStatus status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Window<Booking> findAllByItemOwnerIdAndStatus(Long bookerId, BookingStatus status, ScrollPosition position,
+                                                  Limit limit, Sort sort);
 
-    Optional<Booking> findTopByItemIdAndItemOwnerIdAndStartAfterOrderByStartAsc(Long itemId, Long ownerId,
-                                                                                LocalDateTime now);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Booking> streamAllByItemOwnerId(Long userId, Sort sort);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Booking> streamAllByItemOwnerIdAndEndAfter(Long userId, LocalDateTime now, Sort sort);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Booking> streamAllByItemOwnerIdAndEndBefore(Long userId, LocalDateTime now, Sort sort);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Booking> streamAllByItemOwnerIdAndStartAfter(Long userId, LocalDateTime now, Sort sort);
+
+    @EntityGraph(attributePaths = {"item", "booker"})
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Booking> streamAllByItemOwnerIdAndStatus(Long userId, BookingStatus status, Sort sort);
 
     Collection<Booking> findAllByItemIdAndBookerIdAndEndBefore(Long itemId, Long bookerId, LocalDateTime now);
 
-    List<Booking> findAllByItemInAndStatusOrderByStartAsc(List<Item> items, BookingStatus status);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    List<Booking> findAllByItemInAndStatusOrderByItemIdAscStartAsc(List<Item> items, BookingStatus status);
+
+    List<Booking> findAllByItemIdAndStatusInAndEndAfterOrderByStartAsc(Long itemId, Collection<BookingStatus> statuses,
+                                                                       LocalDateTime now);
+
+    @Query("SELECT b.item.id AS itemId, b.start AS start, b.end AS end FROM Booking b" +
+            " WHERE b.item.id IN :itemIds AND b.status IN :statuses AND b.start < :to AND b.end > :from" +
+            " ORDER BY b.item.id, b.start")
+    List<BookingPeriod> findPeriodsByItemIdIn(Collection<Long> itemIds, Collection<BookingStatus> statuses,
+                                              LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT b.item.id AS itemId, COUNT(b) AS count FROM Booking b" +
+            " WHERE b.item.id IN :itemIds AND b.status IN :statuses GROUP BY b.item.id")
+    List<ItemBookingCount> countByItemIdIn(Collection<Long> itemIds, Collection<BookingStatus> statuses);
 }
\ No newline at end of file
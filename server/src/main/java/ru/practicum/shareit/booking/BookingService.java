@@ -1,18 +1,27 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInput;
+import ru.practicum.shareit.pagination.KeysetPage;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(Long userId, BookingDtoInput dto);
 
+    List<BookingDto> createBookings(Long userId, List<BookingDtoInput> dtos);
+
     BookingDto updateBooking(Long userId, Long bookingId, Boolean approved);
 
     BookingDto getBookingById(Long bookingId, Long userId);
 
-    Collection<BookingDto> getBookingsByUser(Long userId, String state);
+    KeysetPage<BookingDto> getBookingsByUser(Long userId, String state, Integer from, Integer size, String cursor);
+
+    KeysetPage<BookingDto> getBookingsByOwner(Long userId, String state, Integer from, Integer size, String cursor);
+
+    void streamBookingsByOwner(Long userId, String state, Consumer<BookingDto> action);
 
-    Collection<BookingDto> getBookingsByOwner(Long userId, String state);
+    SseEmitter subscribe(Long userId);
 }
\ No newline at end of file
@@ -1,30 +1,55 @@
 package ru.practicum.shareit.booking;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInput;
+import ru.practicum.shareit.event.EventBroker;
+import ru.practicum.shareit.event.EventChannel;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
+import ru.practicum.shareit.stream.EntityStreams;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
 
 import java.time.LocalDateTime;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final Sort SORT_BY_START = Sort.by(Sort.Direction.DESC, "start", "id");
+    private static final int ID_BATCH_SIZE = 1000;
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final EntityManager entityManager;
+    private final EventBroker eventBroker;
 
     @Override
     @Transactional
@@ -33,7 +58,41 @@ public class BookingServiceImpl implements BookingService {
         Item item = getItemById(dto.getItemId());
         checkBooking(dto, userId, item);
         log.debug("Добавление нового бронирования вещи с id = {} пользователя с id = {}", item.getId(), userId);
-        return BookingMapper.toBookingDto(bookingRepository.save(BookingMapper.toBooking(dto, item, user)));
+        Booking booking = BookingMapper.toBooking(dto, item, user);
+        bookingIntervalIndex.reserve(booking);
+        checkNotBooked(Map.of(item.getId(), List.of(booking)));
+        BookingDto savedBooking = BookingMapper.toBookingDto(bookingRepository.save(booking));
+        publish(item.getOwner().getId(), "booking-created", savedBooking);
+        return savedBooking;
+    }
+
+    @Override
+    @Transactional
+    public List<BookingDto> createBookings(Long userId, List<BookingDtoInput> dtos) {
+        User user = getUserById(userId);
+        log.debug("Добавление {} бронирований пользователя с id = {}", dtos.size(), userId);
+        Map<Long, Item> items = getItemsById(dtos.stream().map(BookingDtoInput::getItemId).distinct().toList());
+        List<Booking> bookings = dtos.stream().map(dto -> {
+            Item item = items.get(dto.getItemId());
+            checkBooking(dto, userId, item);
+            return BookingMapper.toBooking(dto, item, user);
+        }).toList();
+        Map<Long, List<Booking>> bookingsByItem = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getStart))
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId(), TreeMap::new,
+                        Collectors.toList()));
+        // Пересечения внутри пакета проверяются на месте, индекс только быстро отказывает, решает база данных
+        bookingsByItem.values().forEach(this::checkNoOverlaps);
+        bookings.forEach(bookingIntervalIndex::reserve);
+        checkNotBooked(bookingsByItem);
+        List<BookingDto> savedBookings = new ArrayList<>(bookings.size());
+        EntityStreams.flushInChunks(bookings, entityManager, chunk -> bookingRepository.saveAll(chunk)
+                .forEach(booking -> {
+                    BookingDto savedBooking = BookingMapper.toBookingDto(booking);
+                    publish(booking.getItem().getOwner().getId(), "booking-created", savedBooking);
+                    savedBookings.add(savedBooking);
+                }));
+        return savedBookings;
     }
 
     @Override
@@ -50,10 +109,16 @@ public class BookingServiceImpl implements BookingService {
         }
         log.debug("Обновление бронирования вещи с id = {} пользователя с id = {}", booking.getItem().getId(), userId);
         booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return BookingMapper.toBookingDto(bookingRepository.save(booking));
+        if (!approved) {
+            bookingIntervalIndex.release(booking);
+        }
+        BookingDto updatedBooking = BookingMapper.toBookingDto(bookingRepository.save(booking));
+        publish(booking.getBooker().getId(), "booking-updated", updatedBooking);
+        return updatedBooking;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookingDto getBookingById(Long bookingId, Long userId) {
         getUserById(userId);
         Booking booking = getBooking(bookingId);
@@ -66,57 +131,117 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public Collection<BookingDto> getBookingsByUser(Long userId, String state) {
+    @Transactional(readOnly = true)
+    public KeysetPage<BookingDto> getBookingsByUser(Long userId, String state, Integer from, Integer size,
+                                                    String cursor) {
+        getUserById(userId);
+        KeysetCursor.checkPaging(from, size);
+        ScrollPosition position = KeysetCursor.toScrollPosition(cursor, from, "start");
+        Limit limit = KeysetCursor.toLimit(size);
+        LocalDateTime now = LocalDateTime.now();
+        Window<Booking> bookings;
+
+        switch (state.toUpperCase()) {
+            case "ALL" -> bookings = bookingRepository.findAllByBookerId(userId, position, limit, SORT_BY_START);
+            case "CURRENT" -> bookings = bookingRepository.findAllByBookerIdAndEndAfter(userId, now, position, limit,
+                    SORT_BY_START);
+            case "PAST" -> bookings = bookingRepository.findAllByBookerIdAndEndBefore(userId, now, position, limit,
+                    SORT_BY_START);
+            case "FUTURE" -> bookings = bookingRepository.findAllByBookerIdAndStartAfter(userId, now, position, limit,
+                    SORT_BY_START);
+            case "WAITING" -> bookings = bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING,
+                    position, limit, SORT_BY_START);
+            case "REJECTED" -> bookings = bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED,
+                    position, limit, SORT_BY_START);
+            default -> throw new IllegalArgumentException("Неверный параметр 'state'");
+        }
+
+        return toBookingPage(bookings);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<BookingDto> getBookingsByOwner(Long userId, String state, Integer from, Integer size,
+                                                     String cursor) {
         getUserById(userId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
+        KeysetCursor.checkPaging(from, size);
+        ScrollPosition position = KeysetCursor.toScrollPosition(cursor, from, "start");
+        Limit limit = KeysetCursor.toLimit(size);
         LocalDateTime now = LocalDateTime.now();
-        Collection<Booking> bookings;
+        Window<Booking> bookings;
 
         switch (state.toUpperCase()) {
-            case "ALL" -> bookings = bookingRepository.findAllByBookerId(userId, sort);
-            case "CURRENT" -> bookings = bookingRepository.findAllByBookerIdAndEndAfter(userId, now, sort);
-            case "PAST" -> bookings = bookingRepository.findAllByBookerIdAndEndBefore(userId, now, sort);
-            case "FUTURE" -> bookings = bookingRepository.findAllByBookerIdAndStartAfter(userId, now, sort);
-            case "WAITING" ->
-                    bookings = bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, sort);
-            case "REJECTED" ->
-                    bookings = bookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, sort);
+            case "ALL" -> bookings = bookingRepository.findAllByItemOwnerId(userId, position, limit, SORT_BY_START);
+            case "CURRENT" -> bookings = bookingRepository.findAllByItemOwnerIdAndEndAfter(userId, now, position,
+                    limit, SORT_BY_START);
+            case "PAST" -> bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(userId, now, position,
+                    limit, SORT_BY_START);
+            case "FUTURE" -> bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(userId, now, position,
+                    limit, SORT_BY_START);
+            case "WAITING" -> bookings = bookingRepository.findAllByItemOwnerIdAndStatus(userId,
+                    BookingStatus.WAITING, position, limit, SORT_BY_START);
+            case "REJECTED" -> bookings = bookingRepository.findAllByItemOwnerIdAndStatus(userId,
+                    BookingStatus.REJECTED, position, limit, SORT_BY_START);
             default -> throw new IllegalArgumentException("Неверный параметр 'state'");
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .toList();
+        return toBookingPage(bookings);
     }
 
     @Override
-    public Collection<BookingDto> getBookingsByOwner(Long userId, String state) {
+    @Transactional(readOnly = true)
+    public void streamBookingsByOwner(Long userId, String state, Consumer<BookingDto> action) {
         getUserById(userId);
-        Sort sort = Sort.by(Sort.Direction.DESC, "start");
         LocalDateTime now = LocalDateTime.now();
-        Collection<Booking> bookings;
+        Stream<Booking> bookings;
 
         switch (state.toUpperCase()) {
-            case "ALL" -> bookings = bookingRepository.findAllByItemOwnerId(userId, sort);
-            case "CURRENT" -> bookings = bookingRepository.findAllByItemOwnerIdAndEndAfter(userId, now, sort);
-            case "PAST" -> bookings = bookingRepository.findAllByItemOwnerIdAndEndBefore(userId, now, sort);
-            case "FUTURE" -> bookings = bookingRepository.findAllByItemOwnerIdAndStartAfter(userId, now, sort);
-            case "WAITING" ->
-                    bookings = bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.WAITING, sort);
-            case "REJECTED" ->
-                    bookings = bookingRepository.findAllByItemOwnerIdAndStatus(userId, BookingStatus.REJECTED, sort);
+            case "ALL" -> bookings = bookingRepository.streamAllByItemOwnerId(userId, SORT_BY_START);
+            case "CURRENT" -> bookings = bookingRepository.streamAllByItemOwnerIdAndEndAfter(userId, now,
+                    SORT_BY_START);
+            case "PAST" -> bookings = bookingRepository.streamAllByItemOwnerIdAndEndBefore(userId, now,
+                    SORT_BY_START);
+            case "FUTURE" -> bookings = bookingRepository.streamAllByItemOwnerIdAndStartAfter(userId, now,
+                    SORT_BY_START);
+            case "WAITING" -> bookings = bookingRepository.streamAllByItemOwnerIdAndStatus(userId,
+                    BookingStatus.WAITING, SORT_BY_START);
+            case "REJECTED" -> bookings = bookingRepository.streamAllByItemOwnerIdAndStatus(userId,
+                    BookingStatus.REJECTED, SORT_BY_START);
             default -> throw new IllegalArgumentException("Неверный параметр 'state'");
         }
 
-        return bookings.stream()
-                .map(BookingMapper::toBookingDto)
-                .toList();
+        log.debug("Потоковое получение списка бронирований владельца с id = {}", userId);
+        EntityStreams.forEachChunk(bookings, entityManager,
+                chunk -> chunk.forEach(booking -> action.accept(BookingMapper.toBookingDto(booking))));
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        getUserById(userId);
+        return eventBroker.subscribe(EventChannel.BOOKINGS, userId);
+    }
+
+    private KeysetPage<BookingDto> toBookingPage(Window<Booking> bookings) {
+        String nextCursor = null;
+        if (bookings.hasNext() && !bookings.isEmpty()) {
+            Booking last = bookings.getContent().get(bookings.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getStart(), last.getId());
+        }
+        return KeysetPage.<BookingDto>builder()
+                .content(bookings.stream().map(BookingMapper::toBookingDto).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // Подписчики узнают только о зафиксированных изменениях
+    private void publish(Long userId, String name, BookingDto booking) {
+        TransactionCallbacks.afterCommit(() -> eventBroker.publish(EventChannel.BOOKINGS, userId, name, booking));
     }
 
     private User getUserById(Long id) {
         checkId(id);
         log.debug("Получение пользователя с id = {}", id);
-        return userRepository.findById(id)
+        return userCache.get(id)
                 .orElseThrow(() -> new EntityNotFoundException("Пользователь с id = " + id + " не найден"));
     }
 
@@ -127,6 +252,22 @@ public class BookingServiceImpl implements BookingService {
                 .orElseThrow(() -> new NotFoundException("Вещь с id = " + id + " не найдена"));
     }
 
+    private Map<Long, Item> getItemsById(List<Long> ids) {
+        ids.forEach(this::checkId);
+        Map<Long, Item> items = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+            itemRepository.findAllById(ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size())))
+                    .forEach(item -> items.put(item.getId(), item));
+        }
+        ids.stream()
+                .filter(id -> !items.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new NotFoundException("Вещь с id = " + id + " не найдена");
+                });
+        return items;
+    }
+
     private void checkBooking(BookingDtoInput dto, Long userId, Item item) {
         if (!item.getAvailable()) {
             throw new ValidationException("Бронирование вещи с id = " + item.getId() + " недоступно");
@@ -139,6 +280,57 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
+    // Бронирования одной вещи отсортированы по началу, поэтому пересечение найдётся среди соседних
+    private void checkNoOverlaps(List<Booking> bookings) {
+        for (int i = 1; i < bookings.size(); i++) {
+            if (bookings.get(i).getStart().isBefore(bookings.get(i - 1).getEnd())) {
+                throw alreadyBooked(bookings.get(i));
+            }
+        }
+    }
+
+    // Окончательная проверка под блокировкой вещей видит бронирования всех экземпляров и записи в обход индекса.
+    // Вещи блокируются в порядке id, на каждую пачку вещей выполняется один запрос к базе
+    private void checkNotBooked(Map<Long, List<Booking>> bookingsByItem) {
+        List<Long> itemIds = bookingsByItem.keySet().stream().sorted().toList();
+        for (int i = 0; i < itemIds.size(); i += ID_BATCH_SIZE) {
+            List<Long> chunk = itemIds.subList(i, Math.min(i + ID_BATCH_SIZE, itemIds.size()));
+            itemRepository.lockAllById(chunk);
+            List<Booking> bookings = chunk.stream().flatMap(itemId -> bookingsByItem.get(itemId).stream()).toList();
+            LocalDateTime from = bookings.stream().map(Booking::getStart).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDateTime to = bookings.stream().map(Booking::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+            Map<Long, List<BookingPeriod>> periods = bookingRepository.findPeriodsByItemIdIn(chunk,
+                            BookingIntervalIndex.BLOCKING_STATUSES, from, to).stream()
+                    .collect(Collectors.groupingBy(BookingPeriod::getItemId));
+            chunk.forEach(itemId -> checkNotBooked(bookingsByItem.get(itemId),
+                    periods.getOrDefault(itemId, List.of())));
+        }
+    }
+
+    // Оба списка отсортированы по началу: бронирование занято, если его пересекает хотя бы один
+    // сохранённый период, начавшийся раньше его конца
+    private void checkNotBooked(List<Booking> bookings, List<BookingPeriod> periods) {
+        int next = 0;
+        LocalDateTime latestEnd = null;
+        for (Booking booking : bookings) {
+            while (next < periods.size() && periods.get(next).getStart().isBefore(booking.getEnd())) {
+                LocalDateTime end = periods.get(next++).getEnd();
+                if (latestEnd == null || end.isAfter(latestEnd)) {
+                    latestEnd = end;
+                }
+            }
+            if (latestEnd != null && latestEnd.isAfter(booking.getStart())) {
+                throw alreadyBooked(booking);
+            }
+        }
+    }
+
+    private ValidationException alreadyBooked(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        log.error("Вещь с id = {} уже забронирована на период {} - {}", itemId, booking.getStart(), booking.getEnd());
+        return new ValidationException("Вещь с id = " + itemId + " уже забронирована на это время");
+    }
+
     private Booking getBooking(Long id) {
         checkId(id);
         log.debug("Получение бронирования с id = {}", id);
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.datasource;
+
+import java.util.function.Supplier;
+
+// Состояние текущего HTTP-запроса: нужно ли читать с основной базы и как сообщить клиенту о записи
+public final class ConsistencyContext {
+    private static final ThreadLocal<ConsistencyContext> CURRENT = new ThreadLocal<>();
+
+    private final Runnable onWrite;
+    private boolean primaryRequired;
+
+    private ConsistencyContext(boolean primaryRequired, Runnable onWrite) {
+        this.primaryRequired = primaryRequired;
+        this.onWrite = onWrite;
+    }
+
+    static void open(boolean primaryRequired, Runnable onWrite) {
+        CURRENT.set(new ConsistencyContext(primaryRequired, onWrite));
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    // Задача пула получает контекст запроса, из которого её запустили
+    static Runnable propagate(Runnable task) {
+        ConsistencyContext context = CURRENT.get();
+        if (context == null) {
+            return task;
+        }
+        return () -> {
+            CURRENT.set(context);
+            try {
+                task.run();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    // Транзакции, начатые внутри action, читают с основной базы. Транзакция, уже взявшая соединение
+    // с реплики, так и продолжает читать с неё
+    public static <T> T requirePrimary(Supplier<T> action) {
+        ConsistencyContext previous = CURRENT.get();
+        CURRENT.set(new ConsistencyContext(true, () -> {
+            if (previous != null) {
+                previous.primaryRequired = true;
+                previous.onWrite.run();
+            }
+        }));
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public static void requirePrimary(Runnable action) {
+        requirePrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static boolean isPrimaryRequired() {
+        ConsistencyContext context = CURRENT.get();
+        return context != null && context.primaryRequired;
+    }
+
+    // После своей записи запрос до конца читает с основной базы
+    static void writeCommitted() {
+        ConsistencyContext context = CURRENT.get();
+        if (context != null) {
+            context.primaryRequired = true;
+            context.onWrite.run();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package ru.practicum.shareit.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// Токен - время фиксации записи; пока реплика может отставать, чтения клиента идут на основную базу
+@Slf4j
+@RequiredArgsConstructor
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+    public static final String TOKEN_HEADER = "X-Consistency-Token";
+
+    private final Duration maxLag;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ConsistencyContext.open(isRecent(request.getHeader(TOKEN_HEADER)),
+                () -> response.setHeader(TOKEN_HEADER, String.valueOf(System.currentTimeMillis())));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ConsistencyContext.close();
+        }
+    }
+
+    private boolean isRecent(String token) {
+        if (token == null) {
+            return false;
+        }
+        try {
+            return Long.parseLong(token) + maxLag.toMillis() > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            log.debug("Некорректный токен согласованности: {}", token);
+            return false;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+// Соединение выбирается при первом запросе, поэтому источник оборачивается в LazyConnectionDataSourceProxy
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (readOnly && !ConsistencyContext.isPrimaryRequired()) {
+            return Target.REPLICA;
+        }
+        if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionCallbacks.afterCommit(ConsistencyContext::writeCommitted);
+        }
+        return Target.PRIMARY;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Строки реплики могут отставать, поэтому читающие с неё транзакции берут сущности из кэша второго уровня,
+// но не кладут их туда
+class RoutingJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean preBound = TransactionSynchronizationManager.hasResource(obtainEntityManagerFactory());
+        super.doBegin(transaction, definition);
+        if (!preBound && definition.isReadOnly() && !ConsistencyContext.isPrimaryRequired()) {
+            EntityManagerHolder holder =
+                    (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+}
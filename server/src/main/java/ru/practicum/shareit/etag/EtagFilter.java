@@ -0,0 +1,28 @@
+package ru.practicum.shareit.etag;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+import java.util.regex.Pattern;
+
+// Сильный ETag считается по телу ответа, совпавший If-None-Match получает 304 без тела.
+// Экономится только передача: запрос к базе и сериализация выполняются и для 304.
+// Тело буферизуется целиком, поэтому ETag считается только для ответов, которые шлюз перепроверяет
+@Component
+public class EtagFilter extends ShallowEtagHeaderFilter {
+    private static final Pattern REVALIDATED_PATHS = Pattern.compile("/(users|items|requests)/\\d+|/requests/all");
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())
+                || !REVALIDATED_PATHS.matcher(request.getRequestURI()).matches()) {
+            return true;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+    }
+}
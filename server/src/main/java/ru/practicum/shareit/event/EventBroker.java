@@ -0,0 +1,167 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class EventBroker {
+    private final Map<Topic, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Executor executor;
+    private final Counter dropped;
+    private final int bufferSize;
+    private final Duration timeout;
+
+    // Рассылка идёт в собственном ограниченном пуле: медленные подписчики не занимают applicationTaskExecutor,
+    // в котором выполняются NDJSON-выгрузки
+    @Autowired
+    public EventBroker(MeterRegistry meterRegistry,
+                       @Value("${shareit.events.buffer-size:32}") int bufferSize,
+                       @Value("${shareit.events.timeout:10m}") Duration timeout,
+                       @Value("${shareit.events.pool-size:16}") int poolSize,
+                       @Value("${shareit.events.queue-capacity:1000}") int queueCapacity) {
+        this(new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("events-")),
+                meterRegistry, bufferSize, timeout);
+    }
+
+    EventBroker(Executor executor, MeterRegistry meterRegistry, int bufferSize, Duration timeout) {
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        dropped = meterRegistry.counter("shareit.events.dropped");
+        meterRegistry.gauge("shareit.events.subscribers", subscribers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public SseEmitter subscribe(EventChannel channel, Long userId) {
+        return register(new Topic(channel, userId), new SseEmitter(timeout.toMillis()));
+    }
+
+    // Отправка идёт в пуле рассылки, поэтому медленный подписчик не задерживает публикующий поток
+    public void publish(EventChannel channel, Long userId, String name, Object data) {
+        Set<Subscription> topicSubscriptions = subscriptions.get(new Topic(channel, userId));
+        if (topicSubscriptions == null) {
+            return;
+        }
+        Event event = new Event(name, data);
+        topicSubscriptions.forEach(subscription -> subscription.offer(event));
+    }
+
+    SseEmitter register(Topic topic, SseEmitter emitter) {
+        Subscription subscription = new Subscription(topic, emitter);
+        subscriptions.compute(topic, (key, topicSubscriptions) -> {
+            Set<Subscription> result = topicSubscriptions != null ? topicSubscriptions : ConcurrentHashMap.newKeySet();
+            result.add(subscription);
+            return result;
+        });
+        subscribers.incrementAndGet();
+        emitter.onCompletion(subscription::remove);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.remove());
+        log.debug("Пользователь с id = {} подписался на события '{}'", topic.userId(), topic.channel());
+        return emitter;
+    }
+
+    record Topic(EventChannel channel, Long userId) {
+    }
+
+    private record Event(String name, Object data) {
+    }
+
+    private final class Subscription {
+        private final Topic topic;
+        private final SseEmitter emitter;
+        private final Queue<Event> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean removed = new AtomicBoolean();
+
+        private Subscription(Topic topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        // При переполнении буфера вытесняется самое старое событие
+        private void offer(Event event) {
+            synchronized (buffer) {
+                if (buffer.size() == bufferSize) {
+                    buffer.poll();
+                    dropped.increment();
+                }
+                buffer.add(event);
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // События остаются в буфере и будут отправлены при следующей публикации
+                    log.warn("Пул рассылки событий переполнен, отправка подписчику с id = {} отложена",
+                            topic.userId());
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Event event;
+                synchronized (buffer) {
+                    event = buffer.poll();
+                    if (event == null) {
+                        draining.set(false);
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Подписчик с id = {} отключился от событий '{}'", topic.userId(), topic.channel());
+                    remove();
+                    return;
+                }
+            }
+        }
+
+        private void remove() {
+            if (!removed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.decrementAndGet();
+            subscriptions.computeIfPresent(topic, (key, topicSubscriptions) -> {
+                topicSubscriptions.remove(this);
+                return topicSubscriptions.isEmpty() ? null : topicSubscriptions;
+            });
+        }
+    }
+}
\ No newline at end of file
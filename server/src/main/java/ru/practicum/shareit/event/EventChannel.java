@@ -0,0 +1,6 @@
+package ru.practicum.shareit.event;
+
+public enum EventChannel {
+    BOOKINGS,
+    ITEM_REQUESTS
+}
\ No newline at end of file
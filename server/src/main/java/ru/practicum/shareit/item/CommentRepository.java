@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,7 +9,9 @@ import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph(attributePaths = "author")
     Collection<Comment> findAllByItemId(Long itemId);
 
-    List<Comment> findAllByItemIn(List<Item> items);
+    @EntityGraph(attributePaths = "author")
+    List<Comment> findAllByItemInOrderByItemIdAscIdAsc(List<Item> items);
 }
\ No newline at end of file
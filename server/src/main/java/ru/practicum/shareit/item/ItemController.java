@@ -1,8 +1,11 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,12 +16,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoInput;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.stream.NdjsonResponse;
 
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -26,6 +32,7 @@ import java.util.Collection;
 @RequestMapping("/items")
 public class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -35,6 +42,14 @@ public class ItemController {
         return itemService.createItem(userId, dto);
     }
 
+    @PostMapping("/bulk")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<ItemDtoRequest> createItems(@RequestBody List<ItemDtoInput> dtos,
+                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на добавление {} вещей пользователю с id = {}", dtos.size(), userId);
+        return itemService.createItems(userId, dtos);
+    }
+
     @PatchMapping("/{itemId}")
     public ItemDto updateItem(@PathVariable Long itemId,
                               @RequestBody ItemDtoInput dto,
@@ -51,16 +66,26 @@ public class ItemController {
     }
 
     @GetMapping
-    public Collection<ItemDto> getAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("Запрос на получение списка всех вещей пользователя с id = {}", userId);
-        return itemService.getAllItemsByOwner(userId);
+    public Collection<ItemDto> getAllItemsByOwner(@RequestParam(defaultValue = "0") Integer from,
+                                                  @RequestParam(required = false) Integer size,
+                                                  @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на получение списка вещей пользователя с id = {}, from = {}, size = {}", userId, from, size);
+        return itemService.getAllItemsByOwner(userId, from, size);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItemsByOwner(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на потоковое получение списка всех вещей пользователя с id = {}", userId);
+        return NdjsonResponse.<ItemDto>of(objectMapper, action -> itemService.streamAllItemsByOwner(userId, action));
     }
 
     @GetMapping("/search")
     public Collection<ItemDto> searchItems(@RequestParam String text,
+                                           @RequestParam(defaultValue = "0") Integer from,
+                                           @RequestParam(required = false) Integer size,
                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Запрос на поиск вещей пользователя с id = {} с текстом '{}'", userId, text);
-        return itemService.searchItems(text);
+        return itemService.searchItems(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
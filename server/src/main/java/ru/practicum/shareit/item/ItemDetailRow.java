@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item;
+
+import java.time.LocalDateTime;
+
+// Строка запроса карточки вещи: одна на каждый отзыв или одна без отзывов
+public interface ItemDetailRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+
+    Long getLastBookingId();
+
+    LocalDateTime getLastBookingStart();
+
+    LocalDateTime getLastBookingEnd();
+
+    String getLastBookingStatus();
+
+    Long getLastBookerId();
+
+    String getLastBookerName();
+
+    String getLastBookerEmail();
+
+    Long getNextBookingId();
+
+    LocalDateTime getNextBookingStart();
+
+    LocalDateTime getNextBookingEnd();
+
+    String getNextBookingStatus();
+
+    Long getNextBookerId();
+
+    String getNextBookerName();
+
+    String getNextBookerEmail();
+
+    Long getCommentId();
+
+    String getCommentText();
+
+    String getCommentAuthorName();
+
+    LocalDateTime getCommentCreated();
+}
\ No newline at end of file
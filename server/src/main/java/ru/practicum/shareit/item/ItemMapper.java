@@ -1,13 +1,18 @@
 package ru.practicum.shareit.item;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoInput;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.user.dto.UserDto;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 @UtilityClass
 public class ItemMapper {
@@ -30,21 +35,6 @@ public class ItemMapper {
                 .build();
     }
 
-    public ItemDto toItemDtoBooking(Item item, BookingDto lastBooking, BookingDto nextBooking,
-                                    Collection<CommentDto> comments, Long requestId) {
-        return ItemDto.builder()
-                .id(item.getId())
-                .name(item.getName())
-                .description(item.getDescription())
-                .available(item.getAvailable())
-                .ownerId(item.getOwner().getId())
-                .lastBooking(lastBooking)
-                .nextBooking(nextBooking)
-                .comments(comments)
-                .requestId(requestId)
-                .build();
-    }
-
     public ItemDto toItemDtoBooking(Item item, BookingDto lastBooking, BookingDto nextBooking,
                                     Collection<CommentDto> comments) {
         return ItemDto.builder()
@@ -80,4 +70,67 @@ public class ItemMapper {
                 .requestId(itemRequestId)
                 .build();
     }
+
+    public ItemDto toItemDto(List<ItemDetailRow> rows) {
+        ItemDetailRow row = rows.get(0);
+        ItemDto bookedItem = ItemDto.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .ownerId(row.getOwnerId())
+                .build();
+        List<CommentDto> comments = new ArrayList<>(rows.size());
+        for (ItemDetailRow comment : rows) {
+            if (comment.getCommentId() != null) {
+                comments.add(CommentDto.builder()
+                        .id(comment.getCommentId())
+                        .text(comment.getCommentText())
+                        .itemId(row.getId())
+                        .authorName(comment.getCommentAuthorName())
+                        .created(comment.getCommentCreated())
+                        .build());
+            }
+        }
+        BookingDto lastBooking = toBookingDto(row.getLastBookingId(), row.getLastBookingStart(),
+                row.getLastBookingEnd(), row.getLastBookingStatus(), bookedItem,
+                toUserDto(row.getLastBookerId(), row.getLastBookerName(), row.getLastBookerEmail()));
+        BookingDto nextBooking = toBookingDto(row.getNextBookingId(), row.getNextBookingStart(),
+                row.getNextBookingEnd(), row.getNextBookingStatus(), bookedItem,
+                toUserDto(row.getNextBookerId(), row.getNextBookerName(), row.getNextBookerEmail()));
+        return ItemDto.builder()
+                .id(row.getId())
+                .name(row.getName())
+                .description(row.getDescription())
+                .available(row.getAvailable())
+                .ownerId(row.getOwnerId())
+                .lastBooking(lastBooking)
+                .nextBooking(nextBooking)
+                .comments(comments)
+                .requestId(row.getRequestId())
+                .build();
+    }
+
+    private BookingDto toBookingDto(Long id, LocalDateTime start, LocalDateTime end, String status, ItemDto item,
+                                    UserDto booker) {
+        if (id == null) {
+            return null;
+        }
+        return BookingDto.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(item)
+                .booker(booker)
+                .status(BookingStatus.valueOf(status))
+                .build();
+    }
+
+    private UserDto toUserDto(Long id, String name, String email) {
+        return UserDto.builder()
+                .id(id)
+                .name(name)
+                .email(email)
+                .build();
+    }
 }
\ No newline at end of file
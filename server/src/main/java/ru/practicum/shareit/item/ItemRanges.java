@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+// Границы строк каждой вещи в списке, отсортированном по id вещи
+final class ItemRanges {
+    private long[] itemIds;
+    private int[] offsets;
+    private int size;
+
+    private ItemRanges(int capacity) {
+        itemIds = new long[Math.max(capacity, 1)];
+        offsets = new int[itemIds.length + 1];
+    }
+
+    static <T> ItemRanges of(List<T> rows, ToLongFunction<T> itemId, int items) {
+        ItemRanges ranges = new ItemRanges(Math.min(rows.size(), items));
+        for (int i = 0; i < rows.size(); i++) {
+            long id = itemId.applyAsLong(rows.get(i));
+            if (ranges.size == 0 || ranges.itemIds[ranges.size - 1] != id) {
+                ranges.add(id, i);
+            }
+        }
+        ranges.offsets[ranges.size] = rows.size();
+        return ranges;
+    }
+
+    int indexOf(long itemId) {
+        return Arrays.binarySearch(itemIds, 0, size, itemId);
+    }
+
+    int from(int index) {
+        return offsets[index];
+    }
+
+    int to(int index) {
+        return offsets[index + 1];
+    }
+
+    private void add(long id, int offset) {
+        if (size == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        itemIds[size] = id;
+        offsets[size] = offset;
+        size++;
+    }
+}
\ No newline at end of file
@@ -1,15 +1,33 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
-import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.stream.EntityStreams;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwner(User itemOwner);
+    Window<Item> findAllByOwnerId(Long ownerId, ScrollPosition position, Limit limit, Sort sort);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Item> streamAllByOwnerIdOrderById(Long ownerId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<Item> streamAllByAvailableTrue();
 
     @Query("SELECT i FROM Item i" +
             " WHERE UPPER(i.name) LIKE %:text% AND i.available = true" +
@@ -17,4 +35,33 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> searchItemsByText(String text);
 
     List<Item> findAllByItemRequestIdIn(List<Long> requestIds);
+
+    // Блокировка строк вещей в порядке id упорядочивает параллельные бронирования одних и тех же вещей
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> lockAllById(Collection<Long> ids);
+
+    @Query(value = "SELECT i.id AS id, i.name AS name, i.description AS description, i.is_available AS available," +
+            " i.owner_id AS ownerId, i.request_id AS requestId," +
+            " lb.id AS lastBookingId, lb.start_date AS lastBookingStart, lb.end_date AS lastBookingEnd," +
+            " lb.status AS lastBookingStatus, lu.id AS lastBookerId, lu.name AS lastBookerName," +
+            " lu.email AS lastBookerEmail," +
+            " nb.id AS nextBookingId, nb.start_date AS nextBookingStart, nb.end_date AS nextBookingEnd," +
+            " nb.status AS nextBookingStatus, nu.id AS nextBookerId, nu.name AS nextBookerName," +
+            " nu.email AS nextBookerEmail," +
+            " c.id AS commentId, c.text AS commentText, cu.name AS commentAuthorName, c.created AS commentCreated" +
+            " FROM items i" +
+            " LEFT JOIN bookings lb ON lb.id = (SELECT b.id FROM bookings b" +
+            " WHERE b.item_id = i.id AND i.owner_id = :userId AND b.end_date < :now AND b.status = 'APPROVED'" +
+            " ORDER BY b.end_date DESC LIMIT 1)" +
+            " LEFT JOIN users lu ON lu.id = lb.booker_id" +
+            " LEFT JOIN bookings nb ON nb.id = (SELECT b.id FROM bookings b" +
+            " WHERE b.item_id = i.id AND i.owner_id = :userId AND b.start_date > :now" +
+            " ORDER BY b.start_date LIMIT 1)" +
+            " LEFT JOIN users nu ON nu.id = nb.booker_id" +
+            " LEFT JOIN comments c ON c.item_id = i.id" +
+            " LEFT JOIN users cu ON cu.id = c.author_id" +
+            " WHERE i.id = :itemId" +
+            " ORDER BY c.id", nativeQuery = true)
+    List<ItemDetailRow> findItemDetail(Long itemId, Long userId, LocalDateTime now);
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class ItemSearchCache {
+    private final Cache<String, List<ItemSearchHit>> cache;
+    private final Object lock = new Object();
+    private long generation;
+
+    public ItemSearchCache(@Value("${shareit.search.cache.maximum-weight:100000}") long maximumWeight,
+                           MeterRegistry meterRegistry) {
+        // Вес записи — число найденных вещей, поэтому частые короткие запросы не вытесняют весь кэш
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String query, List<ItemSearchHit> hits) -> hits.size() + 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "itemSearch");
+    }
+
+    public List<ItemSearchHit> get(String text, Supplier<List<ItemSearchHit>> loader) {
+        String query = ItemSearchIndex.normalize(text);
+        List<ItemSearchHit> hits = cache.getIfPresent(query);
+        if (hits != null) {
+            return hits;
+        }
+        long loadGeneration;
+        synchronized (lock) {
+            loadGeneration = generation;
+        }
+        hits = List.copyOf(loader.get());
+        synchronized (lock) {
+            if (loadGeneration == generation) {
+                cache.put(query, hits);
+            }
+        }
+        return hits;
+    }
+
+    // Удаляются только запросы, которые являются подстрокой старого или нового текста вещи
+    public void invalidate(Collection<String> texts) {
+        synchronized (lock) {
+            generation++;
+            cache.asMap().keySet().removeIf(query -> texts.stream().anyMatch(text -> text.contains(query)));
+        }
+        log.debug("Кэш поиска вещей очищен для текстов: {}", texts);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+public record ItemSearchHit(Long id, boolean nameMatch, int frequency) {
+    public static ItemSearchHit of(Long id, String name, String description, String query) {
+        return new ItemSearchHit(id, name.contains(query), count(name, query) + count(description, query));
+    }
+
+    private static int count(String text, String query) {
+        int count = 0;
+        for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + query.length())) {
+            count++;
+        }
+        return count;
+    }
+}
\ No newline at end of file
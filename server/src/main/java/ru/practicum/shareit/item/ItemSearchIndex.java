@@ -0,0 +1,200 @@
+package ru.practicum.shareit.item;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.datasource.ConsistencyContext;
+import ru.practicum.shareit.stream.EntityStreams;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
+    private final ItemSearchCache itemSearchCache;
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready;
+
+    // До окончания построения поиск выполняется в базе данных. Индекс строится по основной базе:
+    // вещи, ещё не дошедшие до реплики, иначе не нашлись бы до следующего изменения
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.debug("Построение поискового индекса вещей");
+        lock.writeLock().lock();
+        try {
+            ConsistencyContext.requirePrimary(() -> EntityStreams.forEachChunk(
+                    itemRepository.streamAllByAvailableTrue(), entityManager,
+                    items -> items.forEach(item -> put(item.getId(), Document.of(item)))));
+            ready = true;
+            log.debug("В поисковый индекс добавлено вещей: {}", documents.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Символы шаблона LIKE и запросы короче триграммы обрабатываются только запросом к базе данных
+    public boolean supports(String text) {
+        return text.length() >= GRAM_LENGTH
+                && text.indexOf('%') < 0 && text.indexOf('_') < 0 && text.indexOf('\\') < 0;
+    }
+
+    // Изменения попадают в индекс после фиксации, поэтому изменившая вещи транзакция ищет в базе данных
+    public boolean hasUncommittedChanges() {
+        return TransactionSynchronizationManager.hasResource(this);
+    }
+
+    public List<ItemSearchHit> search(String text) {
+        String query = normalize(text);
+        List<ItemSearchHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Set<Long>> lists = new ArrayList<>();
+            for (long gram : gramsOf(query)) {
+                Set<Long> list = postings.get(gram);
+                if (list == null) {
+                    return hits;
+                }
+                lists.add(list);
+            }
+            if (lists.isEmpty()) {
+                return hits;
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+            for (Long id : lists.get(0)) {
+                Document document = documents.get(id);
+                if (containsInAll(lists, id) && document.contains(query)) {
+                    hits.add(document.toHit(id, query));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits;
+    }
+
+    // Поиск не должен видеть вещи, которые ещё могут быть отменены откатом
+    public void index(Item item) {
+        Document document = Boolean.TRUE.equals(item.getAvailable()) ? Document.of(item) : null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(this)) {
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionCallbacks.afterCompletion(() ->
+                    TransactionSynchronizationManager.unbindResourceIfPossible(this));
+        }
+        TransactionCallbacks.afterCommit(() -> replace(item.getId(), document));
+    }
+
+    private void replace(Long id, Document document) {
+        Document previous;
+        lock.writeLock().lock();
+        try {
+            previous = remove(id);
+            if (document != null) {
+                put(id, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!Objects.equals(previous, document)) {
+            List<String> texts = new ArrayList<>();
+            Stream.of(previous, document)
+                    .filter(Objects::nonNull)
+                    .forEach(changed -> {
+                        texts.add(changed.name());
+                        texts.add(changed.description());
+                    });
+            itemSearchCache.invalidate(texts);
+        }
+    }
+
+    private void put(Long id, Document document) {
+        documents.put(id, document);
+        for (long gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private Document remove(Long id) {
+        Document document = documents.remove(id);
+        if (document != null) {
+            for (long gram : document.grams()) {
+                Set<Long> list = postings.get(gram);
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+        return document;
+    }
+
+    private static boolean containsInAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    private static Set<Long> gramsOf(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add((long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private record Document(String name, String description) {
+        static Document of(Item item) {
+            return new Document(normalize(item.getName()), normalize(item.getDescription()));
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        ItemSearchHit toHit(Long id, String query) {
+            return ItemSearchHit.of(id, name, description, query);
+        }
+
+        Set<Long> grams() {
+            Set<Long> grams = gramsOf(name);
+            grams.addAll(gramsOf(description));
+            return grams;
+        }
+    }
+}
\ No newline at end of file
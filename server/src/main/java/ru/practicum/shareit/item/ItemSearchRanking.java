@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+@UtilityClass
+public class ItemSearchRanking {
+
+    // Совпадение в названии, затем частота текста, затем число бронирований. Без size ранжируются все совпадения
+    public List<Long> top(List<ItemSearchHit> hits, Map<Long, Long> bookingCounts, int from, Integer size) {
+        if (from >= hits.size()) {
+            return Collections.emptyList();
+        }
+        int limit = size == null ? hits.size() : (int) Math.min((long) from + size, hits.size());
+        Comparator<ItemSearchHit> order = Comparator.comparing(ItemSearchHit::nameMatch).reversed()
+                .thenComparing(Comparator.comparingInt(ItemSearchHit::frequency).reversed())
+                .thenComparing(Comparator.comparingLong(
+                        (ItemSearchHit hit) -> bookingCounts.getOrDefault(hit.id(), 0L)).reversed())
+                .thenComparing(ItemSearchHit::id);
+
+        PriorityQueue<ItemSearchHit> heap = new PriorityQueue<>(limit, order.reversed());
+        for (ItemSearchHit hit : hits) {
+            if (heap.size() < limit) {
+                heap.add(hit);
+            } else if (order.compare(hit, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(hit);
+            }
+        }
+
+        List<ItemSearchHit> ranked = new ArrayList<>(heap);
+        ranked.sort(order);
+        return ranked.subList(from, ranked.size()).stream()
+                .map(ItemSearchHit::id)
+                .toList();
+    }
+}
\ No newline at end of file
@@ -6,17 +6,23 @@ import ru.practicum.shareit.item.dto.ItemDtoInput;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDtoRequest createItem(Long id, ItemDtoInput dto);
 
+    List<ItemDtoRequest> createItems(Long id, List<ItemDtoInput> dtos);
+
     ItemDto updateItem(Long itemId, ItemDtoInput dto, Long userId);
 
     ItemDto getItemById(Long itemId, Long userId);
 
-    Collection<ItemDto> getAllItemsByOwner(Long id);
+    Collection<ItemDto> getAllItemsByOwner(Long id, Integer from, Integer size);
+
+    void streamAllItemsByOwner(Long id, Consumer<ItemDto> action);
 
-    Collection<ItemDto> searchItems(String text);
+    Collection<ItemDto> searchItems(String text, Integer from, Integer size);
 
     CommentDto createComment(Long itemId, Long userId, CommentDto dto);
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.Booking;
@@ -9,34 +11,51 @@ import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.booking.BookingStatus;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.event.EventBroker;
+import ru.practicum.shareit.event.EventChannel;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoInput;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.stream.EntityStreams;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
+    private static final List<BookingStatus> BOOKED_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int ID_BATCH_SIZE = 1000;
+    private static final Sort SORT_BY_ID = Sort.by("id");
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final EntityManager entityManager;
+    private final EventBroker eventBroker;
 
     @Override
     @Transactional
@@ -52,7 +71,42 @@ public class ItemServiceImpl implements ItemService {
             item.setItemRequest(itemRequest);
             itemRequestId = itemRequest.getId();
         }
-        return ItemMapper.toItemDtoRequest(itemRepository.save(item), itemRequestId);
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        ItemDtoRequest savedItemDto = ItemMapper.toItemDtoRequest(savedItem, itemRequestId);
+        publishAnswer(savedItem, savedItemDto);
+        return savedItemDto;
+    }
+
+    @Override
+    @Transactional
+    public List<ItemDtoRequest> createItems(Long id, List<ItemDtoInput> dtos) {
+        User itemOwner = getUserById(id);
+        log.debug("Добавление {} вещей пользователю с id = {}", dtos.size(), id);
+        Map<Long, ItemRequest> itemRequests = getItemRequests(dtos.stream()
+                .map(ItemDtoInput::getRequestId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+        List<ItemDtoRequest> savedItems = new ArrayList<>(dtos.size());
+        EntityStreams.flushInChunks(dtos, entityManager, chunk -> {
+            List<Item> items = chunk.stream().map(dto -> {
+                Item item = ItemMapper.toItem(dto);
+                item.setOwner(itemOwner);
+                if (dto.getRequestId() != null) {
+                    item.setItemRequest(itemRequests.get(dto.getRequestId()));
+                }
+                return item;
+            }).toList();
+            itemRepository.saveAll(items).forEach(item -> {
+                itemSearchIndex.index(item);
+                ItemDtoRequest savedItem = ItemMapper.toItemDtoRequest(item,
+                        item.getItemRequest() == null ? null : item.getItemRequest().getId());
+                publishAnswer(item, savedItem);
+                savedItems.add(savedItem);
+            });
+        });
+        return savedItems;
     }
 
     @Override
@@ -74,77 +128,151 @@ public class ItemServiceImpl implements ItemService {
         if (dto.getAvailable() != null) {
             item.setAvailable(dto.getAvailable());
         }
-        return ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        return ItemMapper.toItemDto(savedItem);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemDto getItemById(Long itemId, Long userId) {
-        Item item = checkItem(itemId);
-        LocalDateTime now = LocalDateTime.now();
-        BookingDto lastBooking = bookingRepository
-                .findTopByItemIdAndItemOwnerIdAndEndBeforeAndStatusOrderByEndDesc(itemId, userId, now,
-                        BookingStatus.APPROVED)
-                .map(BookingMapper::toBookingDto)
-                .orElse(null);
-        BookingDto nextBooking = bookingRepository
-                .findTopByItemIdAndItemOwnerIdAndStartAfterOrderByStartAsc(itemId, userId, now)
-                .map(BookingMapper::toBookingDto)
-                .orElse(null);
-        Collection<CommentDto> comments = commentRepository.findAllByItemId(itemId).stream()
-                .map(CommentMapper::toCommentDto).toList();
-        Long requestId = null;
-        if (item.getItemRequest() != null) {
-            requestId = item.getItemRequest().getId();
+        checkId(itemId);
+        log.debug("Получение вещи с id = {}", itemId);
+        List<ItemDetailRow> rows = itemRepository.findItemDetail(itemId, userId, LocalDateTime.now());
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Вещь с id = " + itemId + " не найдена");
         }
+        return ItemMapper.toItemDto(rows);
+    }
 
-        return ItemMapper.toItemDtoBooking(item, lastBooking, nextBooking, comments, requestId);
+    @Override
+    @Transactional(readOnly = true)
+    public Collection<ItemDto> getAllItemsByOwner(Long id, Integer from, Integer size) {
+        KeysetCursor.checkPaging(from, size);
+        log.debug("Получение списка вещей пользователя с id = {}, from = {}, size = {}", id, from, size);
+        getUserById(id);
+        // Бронирования и отзывы загружаются только для вещей текущей страницы
+        return toItemDtosWithBookings(itemRepository.findAllByOwnerId(id, KeysetCursor.toScrollPosition(from),
+                KeysetCursor.toLimit(size), SORT_BY_ID).getContent());
     }
 
     @Override
-    public Collection<ItemDto> getAllItemsByOwner(Long id) {
-        log.debug("Получение списка всех вещей пользователя с id = {}", id);
-        List<Item> items = itemRepository.findAllByOwner(getUserById(id));
-        List<Booking> bookings = bookingRepository.findAllByItemInAndStatusOrderByStartAsc(items,
+    @Transactional(readOnly = true)
+    public void streamAllItemsByOwner(Long id, Consumer<ItemDto> action) {
+        getUserById(id);
+        log.debug("Потоковое получение списка всех вещей пользователя с id = {}", id);
+        EntityStreams.forEachChunk(itemRepository.streamAllByOwnerIdOrderById(id), entityManager,
+                items -> toItemDtosWithBookings(items).forEach(action));
+    }
+
+    private List<ItemDto> toItemDtosWithBookings(List<Item> items) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = bookingRepository.findAllByItemInAndStatusOrderByItemIdAscStartAsc(items,
                 BookingStatus.APPROVED);
-        List<CommentDto> comments = commentRepository.findAllByItemIn(items).stream()
+        List<CommentDto> comments = commentRepository.findAllByItemInOrderByItemIdAscIdAsc(items).stream()
                 .map(CommentMapper::toCommentDto).toList();
+        ItemRanges bookingRanges = ItemRanges.of(bookings, booking -> booking.getItem().getId(), items.size());
+        ItemRanges commentRanges = ItemRanges.of(comments, CommentDto::getItemId, items.size());
 
-        Map<Long, List<Booking>> groupedBookings = bookings.stream()
-                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
-        Map<Long, List<CommentDto>> groupedComments = comments.stream()
-                .collect(Collectors.groupingBy(CommentDto::getItemId));
-
-        return items.stream()
-                .map(item -> {
-                    List<Booking> newBookings = groupedBookings.getOrDefault(item.getId(), Collections.emptyList());
-
-                    BookingDto lastBooking = newBookings.stream()
-                            .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                            .reduce((first, second) -> second)
-                            .map(BookingMapper::toBookingDto)
-                            .orElse(null);
-                    BookingDto nextBooking = newBookings.stream()
-                            .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                            .findFirst()
-                            .map(BookingMapper::toBookingDto)
-                            .orElse(null);
+        List<ItemDto> itemDtos = new ArrayList<>(items.size());
+        for (Item item : items) {
+            BookingDto lastBooking = null;
+            BookingDto nextBooking = null;
+            int bookingIndex = bookingRanges.indexOf(item.getId());
+            if (bookingIndex >= 0) {
+                int from = bookingRanges.from(bookingIndex);
+                int to = bookingRanges.to(bookingIndex);
+                int next = firstStartAfter(bookings, from, to, now);
+                if (next < to) {
+                    nextBooking = BookingMapper.toBookingDto(bookings.get(next));
+                }
+                for (int i = next - 1; i >= from && lastBooking == null; i--) {
+                    if (bookings.get(i).getEnd().isBefore(now)) {
+                        lastBooking = BookingMapper.toBookingDto(bookings.get(i));
+                    }
+                }
+            }
+            int commentIndex = commentRanges.indexOf(item.getId());
+            List<CommentDto> itemComments = commentIndex < 0 ? Collections.emptyList()
+                    : comments.subList(commentRanges.from(commentIndex), commentRanges.to(commentIndex));
+            itemDtos.add(ItemMapper.toItemDtoBooking(item, lastBooking, nextBooking, itemComments));
+        }
+        return itemDtos;
+    }
 
-                    return ItemMapper.toItemDtoBooking(item, lastBooking, nextBooking,
-                            groupedComments.getOrDefault(item.getId(), Collections.emptyList()));
-                }).toList();
+    // Бронирования вещи отсортированы по началу, ищется первое начинающееся позже now
+    private static int firstStartAfter(List<Booking> bookings, int from, int to, LocalDateTime now) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (bookings.get(middle).getStart().isAfter(now)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
     }
 
     @Override
-    public Collection<ItemDto> searchItems(String text) {
+    @Transactional(readOnly = true)
+    public Collection<ItemDto> searchItems(String text, Integer from, Integer size) {
+        KeysetCursor.checkPaging(from, size);
         if (text.isBlank()) {
             return new ArrayList<>();
         }
-        log.debug("Получение списка доступных вещей с текстом '{}'", text);
-        return itemRepository.searchItemsByText(text.toUpperCase()).stream()
+        log.debug("Получение списка доступных вещей с текстом '{}', from = {}, size = {}", text, from, size);
+        List<ItemSearchHit> hits = itemSearchIndex.isReady() && itemSearchIndex.supports(text)
+                && !itemSearchIndex.hasUncommittedChanges()
+                ? itemSearchCache.get(text, () -> itemSearchIndex.search(text))
+                : searchItemsInDatabase(text);
+        List<Long> ids = ItemSearchRanking.top(hits, countBookings(hits), from, size);
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .map(ItemMapper::toItemDto)
                 .toList();
     }
 
+    private List<ItemSearchHit> searchItemsInDatabase(String text) {
+        // Регистр приводится так же, как в индексе, чтобы ответ не зависел от локали сервера
+        String query = ItemSearchIndex.normalize(text);
+        return itemRepository.searchItemsByText(query).stream()
+                .map(item -> ItemSearchHit.of(item.getId(), ItemSearchIndex.normalize(item.getName()),
+                        ItemSearchIndex.normalize(item.getDescription()), query))
+                .toList();
+    }
+
+    private Map<Long, Long> countBookings(List<ItemSearchHit> hits) {
+        Map<Long, Long> counts = new HashMap<>();
+        List<Long> ids = hits.stream().map(ItemSearchHit::id).toList();
+        for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+            bookingRepository.countByItemIdIn(ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size())),
+                            BOOKED_STATUSES)
+                    .forEach(count -> counts.put(count.getItemId(), count.getCount()));
+        }
+        return counts;
+    }
+
+    private Map<Long, ItemRequest> getItemRequests(List<Long> ids) {
+        Map<Long, ItemRequest> itemRequests = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += ID_BATCH_SIZE) {
+            itemRequestRepository.findAllById(ids.subList(i, Math.min(i + ID_BATCH_SIZE, ids.size())))
+                    .forEach(itemRequest -> itemRequests.put(itemRequest.getId(), itemRequest));
+        }
+        ids.stream()
+                .filter(requestId -> !itemRequests.containsKey(requestId))
+                .findFirst()
+                .ifPresent(requestId -> {
+                    throw new NotFoundException("Запрос с id = " + requestId + " не найден");
+                });
+        return itemRequests;
+    }
+
     @Override
     @Transactional
     public CommentDto createComment(Long itemId, Long userId, CommentDto dto) {
@@ -161,10 +289,20 @@ public class ItemServiceImpl implements ItemService {
         return CommentMapper.toCommentDto(commentRepository.save(comment));
     }
 
+    // Автор запроса получает ответ только после фиксации транзакции
+    private void publishAnswer(Item item, ItemDtoRequest answer) {
+        if (item.getItemRequest() == null) {
+            return;
+        }
+        Long requestorId = item.getItemRequest().getRequestor().getId();
+        TransactionCallbacks.afterCommit(() -> eventBroker.publish(EventChannel.ITEM_REQUESTS, requestorId,
+                "item-request-answer", answer));
+    }
+
     private User getUserById(Long id) {
         checkId(id);
         log.debug("Получение пользователя с id = {}", id);
-        return userRepository.findById(id)
+        return userCache.get(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден"));
     }
 
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Map;
+
+@UtilityClass
+public class KeysetCursor {
+    private static final String SEPARATOR = "|";
+
+    public String encode(LocalDateTime time, Long id) {
+        String value = time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ScrollPosition toScrollPosition(String cursor, Integer from, String timeProperty) {
+        if (cursor == null || cursor.isBlank()) {
+            return toScrollPosition(from);
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(SEPARATOR);
+            LocalDateTime time = LocalDateTime.parse(value.substring(0, separator));
+            Long id = Long.valueOf(value.substring(separator + 1));
+            return ScrollPosition.forward(Map.of(timeProperty, time, "id", id));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ValidationException("Неверный параметр 'cursor'");
+        }
+    }
+
+    public ScrollPosition toScrollPosition(Integer from) {
+        return from == 0 ? ScrollPosition.keyset() : ScrollPosition.offset(from - 1);
+    }
+
+    // Без size список отдаётся целиком, как до появления постраничного вывода
+    public Limit toLimit(Integer size) {
+        return size == null ? Limit.unlimited() : Limit.of(size);
+    }
+
+    public void checkPaging(Integer from, Integer size) {
+        if (from < 0 || size != null && size <= 0) {
+            throw new ValidationException("Параметр 'from' не может быть отрицательным, а 'size' должен быть больше 0");
+        }
+    }
+}
\ No newline at end of file
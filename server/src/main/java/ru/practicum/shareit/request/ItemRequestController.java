@@ -1,20 +1,28 @@
 package ru.practicum.shareit.request;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInput;
+import ru.practicum.shareit.stream.NdjsonResponse;
 
 import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @RestController
@@ -22,6 +30,7 @@ import java.util.Collection;
 @RequestMapping("/requests")
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -38,9 +47,27 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public Collection<ItemRequestDto> getAllItemRequests() {
-        log.info("Запрос на получение списка всех запросов, созданных другими пользователями");
-        return itemRequestService.getAllItemRequests();
+    public ResponseEntity<List<ItemRequestDto>> getAllItemRequests(@RequestParam(defaultValue = "0") Integer from,
+                                                                   @RequestParam(required = false) Integer size,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на получение списка запросов, созданных другими пользователями, от пользователя с id = {}",
+                userId);
+        return itemRequestService.getAllItemRequests(userId, from, size, cursor).toResponseEntity();
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItemRequests(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на потоковое получение списка запросов других пользователей от пользователя с id = {}",
+                userId);
+        return NdjsonResponse.<ItemRequestDto>of(objectMapper,
+                action -> itemRequestService.streamAllItemRequests(userId, action));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Запрос на подписку на ответы на запросы пользователя с id = {}", userId);
+        return itemRequestService.subscribe(userId);
     }
 
     @GetMapping("/{requestId}")
@@ -1,14 +1,25 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.stream.EntityStreams;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
     List<ItemRequest> findAllByRequestorIdOrderByCreatedDesc(Long requestorId);
 
-    List<ItemRequest> findAll(Sort sort);
+    Window<ItemRequest> findAllByRequestorIdNot(Long requestorId, ScrollPosition position, Limit limit, Sort sort);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EntityStreams.FETCH_SIZE))
+    Stream<ItemRequest> streamAllByRequestorIdNotOrderByCreatedDescIdDesc(Long requestorId);
 }
\ No newline at end of file
@@ -1,16 +1,23 @@
 package ru.practicum.shareit.request;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInput;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface ItemRequestService {
     ItemRequestDto createItemRequest(Long userId, ItemRequestDtoInput dto);
 
     Collection<ItemRequestDto> getAllItemRequestsByRequestor(Long userId);
 
-    Collection<ItemRequestDto> getAllItemRequests();
+    KeysetPage<ItemRequestDto> getAllItemRequests(Long userId, Integer from, Integer size, String cursor);
+
+    void streamAllItemRequests(Long userId, Consumer<ItemRequestDto> action);
 
     ItemRequestDto getItemRequestById(Long requestId);
+
+    SseEmitter subscribe(Long userId);
 }
\ No newline at end of file
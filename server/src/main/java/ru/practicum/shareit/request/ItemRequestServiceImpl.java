@@ -1,68 +1,99 @@
 package ru.practicum.shareit.request;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.event.EventBroker;
+import ru.practicum.shareit.event.EventChannel;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.Item;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInput;
+import ru.practicum.shareit.stream.EntityStreams;
 import ru.practicum.shareit.user.User;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final Sort SORT_BY_CREATED = Sort.by(Sort.Direction.DESC, "created", "id");
+
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final EntityManager entityManager;
+    private final EventBroker eventBroker;
 
     @Override
     @Transactional
     public ItemRequestDto createItemRequest(Long userId, ItemRequestDtoInput dto) {
         ItemRequest itemRequest = ItemRequestMapper.toItemRequest(dto, getUserById(userId));
-        itemRequest.setCreated(LocalDateTime.now());
+        // База хранит время с точностью до микросекунд, иначе курсор по created не совпадёт с сохранённой строкой
+        itemRequest.setCreated(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
         return ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<ItemRequestDto> getAllItemRequestsByRequestor(Long userId) {
-        List<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(userId);
-        List<Item> items = itemRepository.findAllByItemRequestIdIn(itemRequests.stream()
-                        .map(ItemRequest::getId).toList());
-        List<ItemDtoRequest> answers = items.stream().map(ItemMapper::toItemDtoRequest).toList();
+        return toItemRequestDtos(itemRequestRepository.findAllByRequestorIdOrderByCreatedDesc(userId));
+    }
 
-        Map<Long, List<ItemDtoRequest>> groupedAnswers = answers.stream()
-                .collect(Collectors.groupingBy(ItemDtoRequest::getRequestId));
+    @Override
+    @Transactional(readOnly = true)
+    public KeysetPage<ItemRequestDto> getAllItemRequests(Long userId, Integer from, Integer size, String cursor) {
+        getUserById(userId);
+        KeysetCursor.checkPaging(from, size);
+        log.debug("Получение списка запросов других пользователей для пользователя с id = {}, from = {}, size = {}",
+                userId, from, size);
+        Window<ItemRequest> itemRequests = itemRequestRepository.findAllByRequestorIdNot(userId,
+                KeysetCursor.toScrollPosition(cursor, from, "created"), KeysetCursor.toLimit(size),
+                SORT_BY_CREATED);
 
-        return itemRequests.stream()
-                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest,
-                        groupedAnswers.getOrDefault(itemRequest.getId(), Collections.emptyList()))).toList();
+        String nextCursor = null;
+        if (itemRequests.hasNext() && !itemRequests.isEmpty()) {
+            ItemRequest last = itemRequests.getContent().get(itemRequests.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreated(), last.getId());
+        }
+        return KeysetPage.<ItemRequestDto>builder()
+                .content(toItemRequestDtos(itemRequests.getContent()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
     @Override
-    public Collection<ItemRequestDto> getAllItemRequests() {
-        Sort sort = Sort.by(Sort.Direction.DESC, "created");
-        return itemRequestRepository.findAll(sort).stream()
-                .map(ItemRequestMapper::toItemRequestDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public void streamAllItemRequests(Long userId, Consumer<ItemRequestDto> action) {
+        getUserById(userId);
+        log.debug("Потоковое получение списка запросов других пользователей для пользователя с id = {}", userId);
+        // Те же строки, что и в постраничном списке, с ответами, загруженными для каждой части
+        EntityStreams.forEachChunk(itemRequestRepository.streamAllByRequestorIdNotOrderByCreatedDescIdDesc(userId),
+                entityManager, itemRequests -> toItemRequestDtos(itemRequests).forEach(action));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemRequestDto getItemRequestById(Long requestId) {
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Запрос с id = " + requestId + " не найден"));
@@ -71,10 +102,30 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return ItemRequestMapper.toItemRequestDto(itemRequest, answers);
     }
 
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        getUserById(userId);
+        return eventBroker.subscribe(EventChannel.ITEM_REQUESTS, userId);
+    }
+
+    // Ответы на все запросы страницы загружаются одним запросом
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> itemRequests) {
+        List<Item> items = itemRepository.findAllByItemRequestIdIn(itemRequests.stream()
+                        .map(ItemRequest::getId).toList());
+        List<ItemDtoRequest> answers = items.stream().map(ItemMapper::toItemDtoRequest).toList();
+
+        Map<Long, List<ItemDtoRequest>> groupedAnswers = answers.stream()
+                .collect(Collectors.groupingBy(ItemDtoRequest::getRequestId));
+
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestDto(itemRequest,
+                        groupedAnswers.getOrDefault(itemRequest.getId(), Collections.emptyList()))).toList();
+    }
+
     private User getUserById(Long id) {
         checkId(id);
         log.debug("Получение пользователя с id = {}", id);
-        return userRepository.findById(id)
+        return userCache.get(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден"));
     }
 
@@ -0,0 +1,43 @@
+package ru.practicum.shareit.stream;
+
+import jakarta.persistence.EntityManager;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@UtilityClass
+public class EntityStreams {
+    public static final String FETCH_SIZE = "500";
+
+    private static final int CHUNK_SIZE = Integer.parseInt(FETCH_SIZE);
+
+    public <T> void forEachChunk(Stream<T> rows, EntityManager entityManager, Consumer<List<T>> action) {
+        try (rows) {
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            rows.forEach(row -> {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    action.accept(chunk);
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                action.accept(chunk);
+                entityManager.clear();
+            }
+        }
+    }
+
+    // Новые сущности записываются пакетами, после каждой части контекст сохраняется и очищается
+    public <T> void flushInChunks(List<T> rows, EntityManager entityManager, Consumer<List<T>> action) {
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            action.accept(rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size())));
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package ru.practicum.shareit.transaction;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+@UtilityClass
+public class TransactionCallbacks {
+
+    // Отмена изменений выполняется в обратном порядке, чтобы восстановить исходное состояние
+    public void onRollback(Runnable action) {
+        Callbacks callbacks = current();
+        if (callbacks != null) {
+            callbacks.rollbackActions.push(action);
+        }
+    }
+
+    // Вне транзакции действие выполняется сразу
+    public void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        register(status -> {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                action.run();
+            }
+        });
+    }
+
+    public void afterCompletion(Runnable action) {
+        register(status -> action.run());
+    }
+
+    private void register(IntConsumer action) {
+        Callbacks callbacks = current();
+        if (callbacks != null) {
+            callbacks.completionActions.add(action);
+        }
+    }
+
+    private Callbacks current() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Callbacks callbacks) {
+                return callbacks;
+            }
+        }
+        Callbacks callbacks = new Callbacks();
+        TransactionSynchronizationManager.registerSynchronization(callbacks);
+        return callbacks;
+    }
+
+    private static final class Callbacks implements TransactionSynchronization {
+        private final Deque<Runnable> rollbackActions = new ArrayDeque<>();
+        private final List<IntConsumer> completionActions = new ArrayList<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                rollbackActions.forEach(Runnable::run);
+            }
+            completionActions.forEach(action -> action.accept(status));
+        }
+    }
+}
\ No newline at end of file
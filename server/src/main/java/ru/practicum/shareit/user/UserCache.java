@@ -0,0 +1,69 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.datasource.ConsistencyContext;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Кэшируется только существование пользователя. Сущность вызывающий получает ссылкой в своей сессии,
+// поэтому управляемые объекты не переходят между сессиями и потоками, а поля читаются через кэш второго уровня
+@Component
+public class UserCache {
+    private final Cache<Long, Boolean> cache;
+    private final UserRepository userRepository;
+    private final UserIdBitmap userIdBitmap;
+    private final TransactionTemplate primaryRead;
+
+    public UserCache(UserRepository userRepository,
+                     UserIdBitmap userIdBitmap,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry meterRegistry,
+                     @Value("${shareit.user.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${shareit.user.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.userRepository = userRepository;
+        this.userIdBitmap = userIdBitmap;
+        primaryRead = new TransactionTemplate(transactionManager);
+        primaryRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        primaryRead.setReadOnly(true);
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    public Optional<User> get(Long id) {
+        // Карта своя у каждого экземпляра, поэтому попадание — быстрый путь, а промах проверяется в базе:
+        // пользователь мог быть создан на другом экземпляре. Отсутствие не кэшируется
+        if (!(userIdBitmap.isReady() && userIdBitmap.contains(id))
+                && cache.get(id, key -> existsOnPrimary(key) ? Boolean.TRUE : null) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(userRepository.getReferenceById(id));
+    }
+
+    // Повторная очистка после завершения транзакции убирает значение, прочитанное до фиксации
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        TransactionCallbacks.afterCompletion(() -> cache.invalidate(id));
+    }
+
+    // Читающая транзакция могла уже взять соединение с реплики, поэтому проверка идёт в отдельной
+    private boolean existsOnPrimary(Long id) {
+        return ConsistencyContext.requirePrimary(() -> TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? primaryRead.execute(status -> userRepository.existsById(id))
+                : userRepository.existsById(id));
+    }
+}
@@ -0,0 +1,272 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.datasource.ConsistencyContext;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Старшие 48 бит id выбирают контейнер, младшие 16 бит хранятся в нём массивом или битовой картой
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIdBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] keys = new long[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private volatile boolean ready;
+
+    // Реплика может отставать, а по карте отвечают на запросы, поэтому она строится по основной базе
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        log.debug("Построение битовой карты id пользователей");
+        lock.writeLock().lock();
+        try {
+            ConsistencyContext.requirePrimary(() -> {
+                try (Stream<Long> ids = userRepository.streamAllIds()) {
+                    ids.forEach(this::addId);
+                }
+            });
+            ready = true;
+            log.debug("В битовую карту добавлено id пользователей: {}, размер {} байт", cardinality(),
+                    sizeInBytes());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            int index = Arrays.binarySearch(keys, 0, size, id >> 16);
+            return index >= 0 && containers[index].contains((char) id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(long id) {
+        lock.writeLock().lock();
+        try {
+            addId(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        TransactionCallbacks.onRollback(() -> remove(id));
+    }
+
+    public void delete(long id) {
+        remove(id);
+        TransactionCallbacks.onRollback(() -> {
+            lock.writeLock().lock();
+            try {
+                addId(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public long cardinality() {
+        lock.readLock().lock();
+        try {
+            long cardinality = 0;
+            for (int i = 0; i < size; i++) {
+                cardinality += containers[i].cardinality();
+            }
+            return cardinality;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) keys.length * Long.BYTES + (long) containers.length * Integer.BYTES;
+            for (int i = 0; i < size; i++) {
+                bytes += containers[i].sizeInBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addId(long id) {
+        long key = id >> 16;
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                containers = Arrays.copyOf(containers, size * 2);
+            }
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(containers, index, containers, index + 1, size - index);
+            keys[index] = key;
+            containers[index] = new ArrayContainer();
+            size++;
+        }
+        containers[index] = containers[index].add((char) id);
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int index = Arrays.binarySearch(keys, 0, size, id >> 16);
+            if (index < 0) {
+                return;
+            }
+            Container container = containers[index].remove((char) id);
+            if (container.cardinality() > 0) {
+                containers[index] = container;
+                return;
+            }
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            size--;
+            containers[size] = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private interface Container {
+        boolean contains(char value);
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        int cardinality();
+
+        long sizeInBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        char[] values = new char[4];
+        int cardinality;
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, cardinality, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return (long) values.length * Character.BYTES + Integer.BYTES;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        final long[] words = new long[BITMAP_WORDS];
+        int cardinality;
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        public Container add(char value) {
+            if (!contains(value)) {
+                words[value >>> 6] |= 1L << value;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            if (contains(value)) {
+                words[value >>> 6] &= ~(1L << value);
+                cardinality--;
+            }
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public long sizeInBytes() {
+            return (long) words.length * Long.BYTES + Integer.BYTES;
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[Math.max(cardinality, 4)];
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    array.values[array.cardinality++] = (char) (i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
\ No newline at end of file
@@ -3,10 +3,13 @@ package ru.practicum.shareit.user;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface UserService {
     Collection<UserDto> getAllUsers();
 
+    void streamAllUsers(Consumer<UserDto> action);
+
     UserDto createUser(UserDto dto);
 
     UserDto updateUser(Long id, UserDto dto);
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -7,17 +8,23 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.DuplicatedDataException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.stream.EntityStreams;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserIdBitmap userIdBitmap;
+    private final EntityManager entityManager;
 
     @Override
+    @Transactional(readOnly = true)
     public Collection<UserDto> getAllUsers() {
         log.debug("Получение списка всех пользователей");
         return userRepository.findAll().stream()
@@ -25,13 +32,23 @@ public class UserServiceImpl implements UserService {
                 .toList();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllUsers(Consumer<UserDto> action) {
+        log.debug("Потоковое получение списка всех пользователей");
+        EntityStreams.forEachChunk(userRepository.streamAllByOrderById(), entityManager,
+                users -> users.forEach(user -> action.accept(UserMapper.toUserDto(user))));
+    }
+
     @Override
     @Transactional
     public UserDto createUser(UserDto dto) {
         checkEmail(dto);
         log.debug("Добавление нового пользователя с именем: {}", dto.getName());
-        User user = UserMapper.toUser(dto);
-        return UserMapper.toUserDto(userRepository.save(user));
+        User user = userRepository.save(UserMapper.toUser(dto));
+        userIdBitmap.add(user.getId());
+        userCache.invalidate(user.getId());
+        return UserMapper.toUserDto(user);
     }
 
     @Override
@@ -46,14 +63,16 @@ public class UserServiceImpl implements UserService {
             checkEmail(dto);
             user.setEmail(dto.getEmail());
         }
+        userCache.invalidate(id);
         return UserMapper.toUserDto(userRepository.save(user));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserDto getUserById(Long id) {
         checkId(id);
         log.debug("Получение пользователя с id = {}", id);
-        return UserMapper.toUserDto(userRepository.findById(id)
+        return UserMapper.toUserDto(userCache.get(id)
                 .orElseThrow(() -> new NotFoundException("Пользователь с id = " + id + " не найден")));
     }
 
@@ -63,6 +82,8 @@ public class UserServiceImpl implements UserService {
         getUserById(id);
         log.debug("Удаление пользователя с id = {}", id);
         userRepository.deleteById(id);
+        userIdBitmap.delete(id);
+        userCache.invalidate(id);
     }
 
     private void checkId(Long id) {
@@ -1,9 +1,3 @@
-DROP TABLE IF EXISTS users CASCADE;
-DROP TABLE IF EXISTS requests CASCADE;
-DROP TABLE IF EXISTS items CASCADE;
-DROP TABLE IF EXISTS bookings CASCADE;
-DROP TABLE IF EXISTS comments CASCADE;
-
 CREATE TABLE users (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name VARCHAR NOT NULL,
@@ -48,4 +42,4 @@ CREATE TABLE comments (
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     FOREIGN KEY (item_id) REFERENCES items (id) ON DELETE RESTRICT,
     FOREIGN KEY (author_id) REFERENCES users (id) ON DELETE RESTRICT
-);
\ No newline at end of file
+);
@@ -0,0 +1,7 @@
+CREATE INDEX idx_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+CREATE INDEX idx_bookings_item_end ON bookings (item_id, end_date);
+CREATE INDEX idx_items_owner ON items (owner_id);
+CREATE INDEX idx_items_request ON items (request_id);
+CREATE INDEX idx_requests_requestor_created ON requests (requestor_id, created);
+CREATE INDEX idx_comments_item ON comments (item_id);
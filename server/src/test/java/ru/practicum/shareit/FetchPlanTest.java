@@ -0,0 +1,204 @@
+package ru.practicum.shareit;
+
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.Booking;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.item.Comment;
+import ru.practicum.shareit.item.CommentRepository;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.function.IntSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class FetchPlanTest {
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemRequestService itemRequestService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    Statistics statistics;
+    User owner;
+    Item firstItem;
+    Booking firstBooking;
+    int rows;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        owner = createUser("Owner");
+    }
+
+    @Test
+    void shouldLoadBookingsWithConstantNumberOfStatements() {
+        addRows(1);
+        Long booker = firstBooking.getBooker().getId();
+        int ownerSingle = statements(() -> bookingService.getBookingsByOwner(owner.getId(), "ALL", 0, 10, null)
+                .getContent().size());
+        int bookerSingle = statements(() -> bookingService.getBookingsByUser(booker, "ALL", 0, 10, null)
+                .getContent().size());
+
+        addRows(4);
+        for (Booking booking : bookingRepository.findAll()) {
+            booking.setBooker(firstBooking.getBooker());
+        }
+
+        assertThat(statements(() -> bookingService.getBookingsByOwner(owner.getId(), "ALL", 0, 10, null)
+                .getContent().size())).isEqualTo(ownerSingle);
+        assertThat(statements(() -> bookingService.getBookingsByUser(booker, "ALL", 0, 10, null)
+                .getContent().size())).isEqualTo(bookerSingle);
+        assertThat(rows).isEqualTo(5);
+    }
+
+    @Test
+    void shouldLoadBookingWithSingleStatement() {
+        addRows(1);
+
+        assertThat(statements(() -> {
+            bookingService.getBookingById(firstBooking.getId(), owner.getId());
+            return 1;
+        })).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLoadOwnerItemsWithConstantNumberOfStatements() {
+        addRows(1);
+        int single = statements(() -> itemService.getAllItemsByOwner(owner.getId(), 0, 10).size());
+
+        addRows(4);
+
+        assertThat(statements(() -> itemService.getAllItemsByOwner(owner.getId(), 0, 10).size())).isEqualTo(single);
+        assertThat(rows).isEqualTo(5);
+    }
+
+    @Test
+    void shouldLoadItemCommentsWithConstantNumberOfStatements() {
+        addRows(1);
+        int single = statements(() -> itemService.getItemById(firstItem.getId(), owner.getId()).getComments().size());
+
+        addRows(4);
+        for (Comment comment : commentRepository.findAll()) {
+            comment.setItem(firstItem);
+        }
+
+        assertThat(statements(() -> itemService.getItemById(firstItem.getId(), owner.getId()).getComments().size()))
+                .isEqualTo(single);
+        assertThat(single).isEqualTo(1);
+        assertThat(rows).isEqualTo(5);
+    }
+
+    @Test
+    void shouldLoadItemRequestsWithConstantNumberOfStatements() {
+        addRows(1);
+        int single = statements(() -> itemRequestService.getAllItemRequests(owner.getId(), 0, 10, null)
+                .getContent().size());
+
+        addRows(4);
+
+        assertThat(statements(() -> itemRequestService.getAllItemRequests(owner.getId(), 0, 10, null)
+                .getContent().size())).isEqualTo(single);
+        assertThat(rows).isEqualTo(5);
+    }
+
+    // Добавляет вещи с прошедшими бронированиями, отзывами и запросами разных пользователей
+    private void addRows(int count) {
+        for (int i = 0; i < count; i++) {
+            User user = createUser("User" + userRepository.count());
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("Нужна дрель")
+                    .requestor(user)
+                    .created(LocalDateTime.now())
+                    .build());
+            Item item = itemRepository.save(Item.builder()
+                    .name("Дрель")
+                    .description("Ударная дрель")
+                    .available(true)
+                    .owner(owner)
+                    .itemRequest(request)
+                    .build());
+            Booking booking = bookingRepository.save(Booking.builder()
+                    .start(LocalDateTime.now().minusDays(2))
+                    .end(LocalDateTime.now().minusDays(1))
+                    .item(item)
+                    .booker(user)
+                    .status(BookingStatus.APPROVED)
+                    .build());
+            commentRepository.save(Comment.builder()
+                    .text("Отличная дрель")
+                    .item(item)
+                    .author(user)
+                    .created(LocalDateTime.now())
+                    .build());
+            if (firstItem == null) {
+                firstItem = item;
+                firstBooking = booking;
+            }
+        }
+    }
+
+    private User createUser(String name) {
+        UserDto user = userService.createUser(UserDto.builder().name(name).email(name + "@fetch.ru").build());
+        return userRepository.getReferenceById(user.getId());
+    }
+
+    // Первый вызов прогревает кэш пользователей, считаются запросы второго
+    private int statements(IntSupplier call) {
+        call.getAsInt();
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        rows = call.getAsInt();
+        return (int) statistics.getPrepareStatementCount();
+    }
+}
\ No newline at end of file
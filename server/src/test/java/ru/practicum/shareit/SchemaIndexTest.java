@@ -0,0 +1,67 @@
+package ru.practicum.shareit;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class SchemaIndexTest {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // H2 сам индексирует внешние ключи, а PostgreSQL нет, поэтому кроме плана проверяется,
+    // что запрос опирается на индекс из миграций
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+            "IDX_BOOKINGS_BOOKER_START | BOOKER_ID |"
+                    + " SELECT b.* FROM bookings b WHERE b.booker_id = 1 ORDER BY b.start_date DESC",
+            "IDX_BOOKINGS_BOOKER_START | BOOKER_ID |"
+                    + " SELECT b.* FROM bookings b WHERE b.booker_id = 1 AND b.end_date > NOW()"
+                    + " ORDER BY b.start_date DESC",
+            "IDX_BOOKINGS_BOOKER_START | BOOKER_ID |"
+                    + " SELECT b.* FROM bookings b WHERE b.booker_id = 1 AND b.status = 'WAITING'"
+                    + " ORDER BY b.start_date DESC",
+            "IDX_ITEMS_OWNER | OWNER_ID |"
+                    + " SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id WHERE i.owner_id = 1"
+                    + " ORDER BY b.start_date DESC",
+            "IDX_BOOKINGS_ITEM_END | ITEM_ID |"
+                    + " SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id WHERE b.item_id = 1"
+                    + " AND i.owner_id = 1 AND b.end_date < NOW() AND b.status = 'APPROVED'"
+                    + " ORDER BY b.end_date DESC LIMIT 1",
+            "IDX_BOOKINGS_ITEM_STATUS_START | ITEM_ID |"
+                    + " SELECT b.* FROM bookings b JOIN items i ON i.id = b.item_id WHERE b.item_id = 1"
+                    + " AND i.owner_id = 1 AND b.start_date > NOW() ORDER BY b.start_date LIMIT 1",
+            "IDX_BOOKINGS_ITEM_STATUS_START | ITEM_ID |"
+                    + " SELECT b.* FROM bookings b WHERE b.item_id IN (1, 2) AND b.status = 'APPROVED'"
+                    + " ORDER BY b.start_date",
+            "IDX_BOOKINGS_ITEM_END | ITEM_ID |"
+                    + " SELECT b.* FROM bookings b WHERE b.item_id = 1 AND b.booker_id = 1 AND b.end_date < NOW()",
+            "IDX_BOOKINGS_ITEM_END | ITEM_ID |"
+                    + " SELECT b.* FROM bookings b WHERE b.item_id = 1 AND b.status IN ('WAITING', 'APPROVED')"
+                    + " AND b.end_date > NOW() ORDER BY b.start_date",
+            "IDX_COMMENTS_ITEM | ITEM_ID | SELECT c.* FROM comments c WHERE c.item_id = 1",
+            "IDX_COMMENTS_ITEM | ITEM_ID | SELECT c.* FROM comments c WHERE c.item_id IN (1, 2)",
+            "IDX_ITEMS_OWNER | OWNER_ID | SELECT i.* FROM items i WHERE i.owner_id = 1",
+            "IDX_ITEMS_REQUEST | REQUEST_ID | SELECT i.* FROM items i WHERE i.request_id IN (1, 2)",
+            "IDX_REQUESTS_REQUESTOR_CREATED | REQUESTOR_ID |"
+                    + " SELECT r.* FROM requests r WHERE r.requestor_id = 1 ORDER BY r.created DESC"
+    })
+    void shouldUseIndexForHotQuery(String index, String leadingColumn, String query) {
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+        String column = jdbcTemplate.queryForObject("SELECT column_name FROM information_schema.index_columns"
+                + " WHERE index_name = ? AND ordinal_position = 1", String.class, index);
+
+        assertThat(plan).doesNotContainIgnoringCase("tableScan");
+        assertThat(column).isEqualTo(leadingColumn);
+        assertThat(plan).containsPattern("/\\* PUBLIC\\.\\w+: [^*]*\\b" + leadingColumn + " (=|IN)");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.Item;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoInput;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestRepository;
+import ru.practicum.shareit.request.ItemRequestService;
+import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.dto.ItemRequestDtoInput;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Кэш второго уровня виден только транзакциям, начатым после записи, поэтому данные фиксируются и удаляются
+@SpringBootTest
+@ActiveProfiles("test")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class SecondLevelCacheTest {
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    ItemRequestService itemRequestService;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    Statistics statistics;
+    UserDto owner;
+    ItemDtoRequest item;
+    ItemRequestDto request;
+
+    @BeforeEach
+    void beforeEach() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        owner = userService.createUser(UserDto.builder().name("Владелец").email("owner@cache.ru").build());
+        request = itemRequestService.createItemRequest(owner.getId(),
+                ItemRequestDtoInput.builder().description("Нужен кэш").build());
+        item = itemService.createItem(owner.getId(), ItemDtoInput.builder()
+                .name("Кэшируемая вещь")
+                .description("Кэшируемая")
+                .available(true)
+                .build());
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemService.updateItem(item.getId(), ItemDtoInput.builder().available(false).build(), owner.getId());
+        itemRepository.deleteById(item.getId());
+        itemRequestRepository.deleteById(request.getId());
+        userService.deleteUser(owner.getId());
+    }
+
+    @Test
+    void shouldReadEntitiesFromCacheWithoutStatements() {
+        load(User.class, owner.getId());
+        load(Item.class, item.getId());
+        load(ItemRequest.class, request.getId());
+
+        statistics.clear();
+        load(User.class, owner.getId());
+        load(Item.class, item.getId());
+        load(ItemRequest.class, request.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics("users").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("items").getHitCount()).isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics("requests").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotReturnStaleItemAfterUpdate() {
+        load(Item.class, item.getId());
+
+        itemService.updateItem(item.getId(), ItemDtoInput.builder().name("Обновлённая вещь").build(), owner.getId());
+
+        assertThat(load(Item.class, item.getId()).getName()).isEqualTo("Обновлённая вещь");
+    }
+
+    @Test
+    void shouldNotReturnStaleUserAfterUpdate() {
+        load(User.class, owner.getId());
+
+        userService.updateUser(owner.getId(), UserDto.builder().name("Новый владелец").build());
+
+        assertThat(load(User.class, owner.getId()).getName()).isEqualTo("Новый владелец");
+    }
+
+    @Test
+    void shouldExposeRegionMetrics() {
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "items").meters())
+                .isNotEmpty();
+    }
+
+    // Вне транзакции каждый вызов получает новый EntityManager, поэтому кэш первого уровня не участвует
+    private <T> T load(Class<T> type, Long id) {
+        return entityManager.find(type, id);
+    }
+}
\ No newline at end of file
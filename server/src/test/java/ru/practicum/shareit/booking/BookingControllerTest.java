@@ -10,19 +10,32 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInput;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookingController.class)
@@ -129,13 +142,15 @@ class BookingControllerTest {
     void shouldReturnOkWhenGetBookingsByUser() throws Exception {
         List<BookingDto> bookings = List.of(booking2);
 
-        when(bookingService.getBookingsByUser(1L, "ALL")).thenReturn(bookings);
+        when(bookingService.getBookingsByUser(1L, "ALL", 0, null, null))
+                .thenReturn(KeysetPage.<BookingDto>builder().content(bookings).nextCursor("cursor").build());
 
         mockMvc.perform(get("/bookings")
                         .param("state", "ALL")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, "cursor"))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].item.id").value(1))
                 .andExpect(jsonPath("$[0].item.name").value("Yandex"))
@@ -150,13 +165,15 @@ class BookingControllerTest {
     void shouldReturnOkWhenGetBookingsByOwner() throws Exception {
         List<BookingDto> bookings = List.of(booking2);
 
-        when(bookingService.getBookingsByOwner(1L, "ALL")).thenReturn(bookings);
+        when(bookingService.getBookingsByOwner(1L, "ALL", 0, null, null))
+                .thenReturn(KeysetPage.<BookingDto>builder().content(bookings).build());
 
         mockMvc.perform(get("/bookings/owner")
                         .param("state", "ALL")
                         .header("X-Sharer-User-Id", 1)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(KeysetPage.NEXT_CURSOR_HEADER))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].item.id").value(1))
                 .andExpect(jsonPath("$[0].item.name").value("Yandex"))
@@ -166,4 +183,59 @@ class BookingControllerTest {
                 .andExpect(jsonPath("$[0].booker.email").value("yandex@practicum.ru"))
                 .andExpect(jsonPath("$[0].status").value("WAITING"));
     }
+
+    @Test
+    void shouldStreamBookingsByOwnerAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<BookingDto> action = invocation.getArgument(2);
+            action.accept(booking2);
+            return null;
+        }).when(bookingService).streamBookingsByOwner(eq(1L), eq("ALL"), any());
+
+        var result = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(booking2) + "\n"));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenStreamBookingsOfUnknownOwner() throws Exception {
+        doThrow(new NotFoundException("Пользователь с id = 100 не найден"))
+                .when(bookingService).streamBookingsByOwner(eq(100L), eq("ALL"), any());
+
+        var result = mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 100)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldStreamBookingEvents() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(bookingService.subscribe(1L)).thenReturn(emitter);
+
+        var result = mockMvc.perform(get("/bookings/stream")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("booking-updated").data(booking2, MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:booking-updated")))
+                .andExpect(content().string(containsString(objectMapper.writeValueAsString(booking2))));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoInput;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemRepository;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDtoInput;
+import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class BookingIntervalIndexTest {
+    static final int ATTEMPTS = 2000;
+    static final int THREADS = 32;
+
+    @Autowired
+    BookingService bookingService;
+
+    @Autowired
+    ItemService itemService;
+
+    @Autowired
+    UserService userService;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    UserDto owner;
+    UserDto booker;
+    ItemDtoRequest item;
+
+    @AfterEach
+    void afterEach() {
+        if (item != null) {
+            itemService.updateItem(item.getId(), ItemDtoInput.builder().available(false).build(), owner.getId());
+            bookingRepository.deleteAll(bookingRepository.findAllByItemIdAndStatusInAndEndAfterOrderByStartAsc(
+                    item.getId(), List.of(BookingStatus.values()), LocalDateTime.now().minusYears(1)));
+            itemRepository.deleteById(item.getId());
+        }
+        if (booker != null) {
+            userService.deleteUser(booker.getId());
+        }
+        if (owner != null) {
+            userService.deleteUser(owner.getId());
+        }
+    }
+
+    @Test
+    void shouldCreateOnlyOneOfConcurrentOverlappingBookings() throws Exception {
+        owner = userService.createUser(UserDto.builder().name("Owner").email("owner@index.ru").build());
+        booker = userService.createUser(UserDto.builder().name("Booker").email("booker@index.ru").build());
+        item = itemService.createItem(owner.getId(),
+                ItemDtoInput.builder().name("Дрель").description("Ударная дрель").available(true).build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < ATTEMPTS; i++) {
+            BookingDtoInput booking = BookingDtoInput.builder()
+                    .itemId(item.getId())
+                    .start(start.plusMinutes(i % 60))
+                    .end(start.plusHours(1).plusMinutes(i % 60))
+                    .build();
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.createBooking(booker.getId(), booking);
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get()) {
+                created++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(bookingService.getBookingsByUser(booker.getId(), "ALL", 0, 10, null).getContent()).hasSize(1);
+    }
+
+    @Test
+    void shouldRejectOverlapWithBookingWrittenPastIndex() {
+        createItem("past");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(booker.getId(), bookingInput(start, start.plusHours(1)));
+        saveDirectly(start.plusHours(2), start.plusHours(3));
+
+        assertThatThrownBy(() -> bookingService.createBooking(booker.getId(),
+                bookingInput(start.plusHours(2).plusMinutes(30), start.plusHours(4))))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldRejectBulkOverlapWithBookingWrittenPastIndex() {
+        createItem("bulk-past");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingService.createBooking(booker.getId(), bookingInput(start, start.plusHours(1)));
+        saveDirectly(start.plusHours(4), start.plusHours(5));
+
+        assertThatThrownBy(() -> bookingService.createBookings(booker.getId(), List.of(
+                bookingInput(start.plusHours(2), start.plusHours(3)),
+                bookingInput(start.plusHours(3), start.plusHours(4).plusMinutes(30)))))
+                .isInstanceOf(ValidationException.class);
+        assertThat(bookingService.getBookingsByUser(booker.getId(), "ALL", 0, 10, null).getContent()).hasSize(2);
+    }
+
+    @Test
+    void shouldCreateBulkBookingsBetweenOverlappingLegacyBookings() {
+        createItem("bulk-legacy");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        saveDirectly(start, start.plusHours(3));
+        saveDirectly(start.plusHours(1), start.plusHours(2));
+        saveDirectly(start.plusHours(6), start.plusHours(7));
+
+        List<BookingDto> bookings = bookingService.createBookings(booker.getId(), List.of(
+                bookingInput(start.plusHours(4), start.plusHours(5)),
+                bookingInput(start.plusHours(3), start.plusHours(4)),
+                bookingInput(start.plusHours(7), start.plusHours(8))));
+
+        assertThat(bookings).hasSize(3);
+    }
+
+    @Test
+    void shouldFreeSlotAfterRejectingMergedBookings() {
+        createItem("merged");
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking first = saveDirectly(start, start.plusHours(2));
+        Booking second = saveDirectly(start.plusHours(1), start.plusHours(3));
+        bookingService.createBooking(booker.getId(), bookingInput(start.plusHours(5), start.plusHours(6)));
+
+        bookingService.updateBooking(owner.getId(), first.getId(), false);
+        bookingService.updateBooking(owner.getId(), second.getId(), false);
+        BookingDto booking = bookingService.createBooking(booker.getId(),
+                bookingInput(start.plusMinutes(30), start.plusHours(2)));
+
+        assertThat(booking.getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
+    private void createItem(String suffix) {
+        owner = userService.createUser(UserDto.builder().name("Owner").email("owner@" + suffix + ".ru").build());
+        booker = userService.createUser(UserDto.builder().name("Booker").email("booker@" + suffix + ".ru").build());
+        item = itemService.createItem(owner.getId(),
+                ItemDtoInput.builder().name("Дрель").description("Ударная дрель").available(true).build());
+    }
+
+    private BookingDtoInput bookingInput(LocalDateTime start, LocalDateTime end) {
+        return BookingDtoInput.builder().itemId(item.getId()).start(start).end(end).build();
+    }
+
+    private Booking saveDirectly(LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(Booking.builder()
+                .start(start)
+                .end(end)
+                .item(itemRepository.findById(item.getId()).orElseThrow())
+                .booker(userRepository.findById(booker.getId()).orElseThrow())
+                .status(BookingStatus.WAITING)
+                .build());
+    }
+}
\ No newline at end of file
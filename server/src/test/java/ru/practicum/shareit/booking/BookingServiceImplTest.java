@@ -15,10 +15,13 @@ import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dto.ItemDtoInput;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -64,8 +67,8 @@ public class BookingServiceImplTest {
         BookingDto newBooking = bookingService.createBooking(user4.getId(), booking);
 
         assertThat(newBooking.getId()).isNotNull();
-        assertThat(newBooking.getStart()).isEqualTo(booking.getStart());
-        assertThat(newBooking.getEnd()).isEqualTo(booking.getEnd());
+        assertThat(newBooking.getStart()).isEqualTo(booking.getStart().truncatedTo(ChronoUnit.MICROS));
+        assertThat(newBooking.getEnd()).isEqualTo(booking.getEnd().truncatedTo(ChronoUnit.MICROS));
         assertThat(newBooking.getItem().getId()).isEqualTo(booking.getItemId());
         assertThat(newBooking.getBooker().getId()).isEqualTo(user4.getId());
         assertThat(newBooking.getStatus()).isEqualTo(BookingStatus.WAITING);
@@ -133,6 +136,158 @@ public class BookingServiceImplTest {
                 .isInstanceOf(NotFoundException.class);
     }
 
+    @Test
+    void shouldThrowExceptionWhenBookingOverlapsExistingBooking() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDtoInput booking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build();
+        BookingDtoInput overlappingBooking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start.plusHours(1))
+                .end(start.plusHours(3))
+                .build();
+
+        bookingService.createBooking(user4.getId(), booking);
+
+        assertThatThrownBy(() -> bookingService.createBooking(user4.getId(), overlappingBooking))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldCreateAdjacentBookings() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDtoInput booking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(1))
+                .build();
+        BookingDtoInput nextBooking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start.plusHours(1))
+                .end(start.plusHours(2))
+                .build();
+
+        bookingService.createBooking(user4.getId(), booking);
+        BookingDto newBooking = bookingService.createBooking(user4.getId(), nextBooking);
+
+        assertThat(newBooking.getId()).isNotNull();
+    }
+
+    @Test
+    void shouldCreateBookingsInBulk() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        ItemDtoRequest otherItem = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDtoInput> bookings = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            bookings.add(BookingDtoInput.builder()
+                    .itemId(i % 2 == 0 ? item.getId() : otherItem.getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .build());
+        }
+
+        List<BookingDto> newBookings = bookingService.createBookings(user4.getId(), bookings);
+
+        assertThat(newBookings).hasSize(60);
+        assertThat(newBookings).extracting(BookingDto::getId).doesNotHaveDuplicates();
+        assertThat(newBookings).allMatch(booking -> booking.getStatus() == BookingStatus.WAITING);
+        assertThat(newBookings.get(1).getItem().getId()).isEqualTo(otherItem.getId());
+        assertThat(bookingService.getBookingsByUser(user4.getId(), "ALL", 0, 100, null).getContent())
+                .hasSize(60);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenBulkBookingsOverlap() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDtoInput booking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build();
+        BookingDtoInput overlappingBooking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start.plusHours(1))
+                .end(start.plusHours(3))
+                .build();
+
+        assertThatThrownBy(() -> bookingService.createBookings(user4.getId(), List.of(booking, overlappingBooking)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenUnorderedBulkBookingsOverlap() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        ItemDtoRequest otherItem = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<BookingDtoInput> bookings = new ArrayList<>();
+        for (int hours : new int[]{4, 0, 2}) {
+            bookings.add(BookingDtoInput.builder()
+                    .itemId(item.getId())
+                    .start(start.plusHours(hours))
+                    .end(start.plusHours(hours + 1))
+                    .build());
+            bookings.add(BookingDtoInput.builder()
+                    .itemId(otherItem.getId())
+                    .start(start.plusHours(hours))
+                    .end(start.plusHours(hours + 3))
+                    .build());
+        }
+
+        assertThatThrownBy(() -> bookingService.createBookings(user4.getId(), bookings))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("id = " + otherItem.getId());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenBulkBookingItemIsNotFound() {
+        UserDto user4 = userService.createUser(user2);
+        BookingDtoInput booking = BookingDtoInput.builder()
+                .itemId(1000L)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build();
+
+        assertThatThrownBy(() -> bookingService.createBookings(user4.getId(), List.of(booking)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void shouldCreateBookingWhenOverlappingBookingIsRejected() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDtoInput booking = BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusHours(2))
+                .build();
+
+        BookingDto rejectedBooking = bookingService.createBooking(user4.getId(), booking);
+        bookingService.updateBooking(user3.getId(), rejectedBooking.getId(), false);
+        BookingDto newBooking = bookingService.createBooking(user4.getId(), booking);
+
+        assertThat(newBooking.getId()).isNotEqualTo(rejectedBooking.getId());
+        assertThat(newBooking.getStatus()).isEqualTo(BookingStatus.WAITING);
+    }
+
     @Test
     void shouldUpdateBooking() {
         UserDto user3 = userService.createUser(user1);
@@ -273,7 +428,8 @@ public class BookingServiceImplTest {
                 .build();
 
         BookingDto newBooking = bookingService.createBooking(user4.getId(), booking);
-        List<BookingDto> bookings = bookingService.getBookingsByUser(user4.getId(), "ALL").stream().toList();
+        List<BookingDto> bookings = bookingService.getBookingsByUser(user4.getId(), "ALL", 0, 10, null)
+                .getContent();
 
         assertThat(bookings.getFirst().getId()).isEqualTo(newBooking.getId());
         assertThat(bookings.getFirst().getStart()).isEqualTo(newBooking.getStart());
@@ -295,7 +451,8 @@ public class BookingServiceImplTest {
                 .build();
 
         BookingDto newBooking = bookingService.createBooking(user4.getId(), booking);
-        List<BookingDto> bookings = bookingService.getBookingsByOwner(user3.getId(), "ALL").stream().toList();
+        List<BookingDto> bookings = bookingService.getBookingsByOwner(user3.getId(), "ALL", 0, 10, null)
+                .getContent();
 
         assertThat(bookings.getFirst().getId()).isEqualTo(newBooking.getId());
         assertThat(bookings.getFirst().getStart()).isEqualTo(newBooking.getStart());
@@ -304,4 +461,62 @@ public class BookingServiceImplTest {
         assertThat(bookings.getFirst().getBooker()).isEqualTo(user4);
         assertThat(bookings.getFirst().getStatus()).isEqualTo(BookingStatus.WAITING);
     }
+
+    @Test
+    void shouldGetBookingsByOwnerPageByPage() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<BookingDto> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(bookingService.createBooking(user4.getId(), BookingDtoInput.builder()
+                    .itemId(item.getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .build()));
+        }
+
+        KeysetPage<BookingDto> firstPage = bookingService.getBookingsByOwner(user3.getId(), "ALL", 0, 2, null);
+        KeysetPage<BookingDto> secondPage = bookingService.getBookingsByOwner(user3.getId(), "ALL", 0, 2,
+                firstPage.getNextCursor());
+        KeysetPage<BookingDto> offsetPage = bookingService.getBookingsByOwner(user3.getId(), "ALL", 1, 2, null);
+
+        assertThat(firstPage.getContent()).extracting(BookingDto::getId)
+                .containsExactly(created.get(2).getId(), created.get(1).getId());
+        assertThat(firstPage.getNextCursor()).isNotNull();
+        assertThat(secondPage.getContent()).extracting(BookingDto::getId)
+                .containsExactly(created.get(0).getId());
+        assertThat(secondPage.getNextCursor()).isNull();
+        assertThat(offsetPage.getContent()).extracting(BookingDto::getId)
+                .containsExactly(created.get(1).getId(), created.get(0).getId());
+    }
+
+    @Test
+    void shouldGetAllBookingsByUserWhenSizeIsAbsent() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < 12; i++) {
+            bookingService.createBooking(user4.getId(), BookingDtoInput.builder()
+                    .itemId(item.getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i).plusMinutes(30))
+                    .build());
+        }
+
+        KeysetPage<BookingDto> bookings = bookingService.getBookingsByUser(user4.getId(), "ALL", 0, null, null);
+
+        assertThat(bookings.getContent()).hasSize(12);
+        assertThat(bookings.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldThrowExceptionWhenCursorIsInvalid() {
+        UserDto user3 = userService.createUser(user1);
+
+        assertThatThrownBy(() -> bookingService.getBookingsByUser(user3.getId(), "ALL", 0, 10, "cursor"))
+                .isInstanceOf(ValidationException.class);
+    }
 }
\ No newline at end of file
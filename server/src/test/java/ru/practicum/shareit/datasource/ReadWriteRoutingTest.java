@@ -0,0 +1,190 @@
+package ru.practicum.shareit.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.ItemSearchHit;
+import ru.practicum.shareit.item.ItemSearchIndex;
+import ru.practicum.shareit.user.UserIdBitmap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Реплика - отдельная база H2 без репликации, поэтому записи основной базы на ней не видны
+@SpringBootTest(properties = "spring.datasource.url=" + ReadWriteRoutingTest.PRIMARY_URL)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ReadWriteRoutingTest {
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    static final String USER_HEADER = "X-Sharer-User-Id";
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    UserIdBitmap userIdBitmap;
+
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    Long ownerId;
+    Long itemId;
+    String token;
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "shareit", "shareit")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+        registry.add("shareit.datasource.replica.url", () -> REPLICA_URL);
+        registry.add("shareit.datasource.replica.hikari.username", () -> "shareit");
+        registry.add("shareit.datasource.replica.hikari.password", () -> "shareit");
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception {
+        primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", "password"));
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "shareit", "shareit"));
+
+        MvcResult user = mvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Владелец\",\"email\":\"owner" + System.nanoTime() + "@routing.ru\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ConsistencyTokenFilter.TOKEN_HEADER))
+                .andReturn();
+        ownerId = id(user);
+
+        MvcResult item = mvc.perform(post("/items")
+                        .header(USER_HEADER, ownerId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Дрель\",\"description\":\"Ударная дрель\",\"available\":true}"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists(ConsistencyTokenFilter.TOKEN_HEADER))
+                .andReturn();
+        itemId = id(item);
+        token = item.getResponse().getHeader(ConsistencyTokenFilter.TOKEN_HEADER);
+    }
+
+    @Test
+    void shouldReadFromReplicaWithoutToken() throws Exception {
+        mvc.perform(get("/items/{id}", itemId).header(USER_HEADER, ownerId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReadOwnWriteFromPrimaryWithToken() throws Exception {
+        mvc.perform(get("/items/{id}", itemId)
+                        .header(USER_HEADER, ownerId)
+                        .header(ConsistencyTokenFilter.TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ConsistencyTokenFilter.TOKEN_HEADER))
+                .andExpect(jsonPath("$.name", is("Дрель")));
+    }
+
+    @Test
+    void shouldStreamOwnWriteFromPrimaryWithToken() throws Exception {
+        MvcResult result = mvc.perform(get("/items")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .header(USER_HEADER, ownerId)
+                        .header(ConsistencyTokenFilter.TOKEN_HEADER, token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"id\":" + itemId + ",")));
+    }
+
+    @Test
+    void shouldReadFromReplicaWithExpiredToken() throws Exception {
+        mvc.perform(get("/items/{id}", itemId)
+                        .header(USER_HEADER, ownerId)
+                        .header(ConsistencyTokenFilter.TOKEN_HEADER, "0"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnReplicaRows() throws Exception {
+        primary.update("MERGE INTO users (id, name, email) KEY (id) VALUES (1000000, 'Реплика', 'replica@routing.ru')");
+        replica.update("MERGE INTO users (id, name, email) KEY (id) VALUES (1000000, 'Реплика', 'replica@routing.ru')");
+        replica.update("MERGE INTO items (id, name, description, is_available, owner_id) KEY (id) "
+                + "VALUES (1000000, 'Вещь с реплики', 'Только на реплике', true, 1000000)");
+
+        mvc.perform(get("/items/{id}", 1000000).header(USER_HEADER, 1000000))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Вещь с реплики")));
+    }
+
+    @Test
+    void shouldBuildBitmapAndIndexFromPrimaryWhenReplicaLags() {
+        primary.update("MERGE INTO users (id, name, email) KEY (id) VALUES (2000000, 'Основная', 'lag@routing.ru')");
+        primary.update("MERGE INTO items (id, name, description, is_available, owner_id) KEY (id) "
+                + "VALUES (2000000, 'Стремянка', 'Только на основной базе', true, 2000000)");
+
+        userIdBitmap.build();
+        itemSearchIndex.build();
+
+        assertThat(userIdBitmap.contains(2000000L)).isTrue();
+        assertThat(itemSearchIndex.search("стремянка")).extracting(ItemSearchHit::id).contains(2000000L);
+    }
+
+    @Test
+    void shouldCheckUserOnPrimaryWhenReplicaLags() throws Exception {
+        primary.update("MERGE INTO users (id, name, email) KEY (id) VALUES (2000001, 'Новый', 'new@routing.ru')");
+
+        mvc.perform(get("/items").header(USER_HEADER, 2000001))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void shouldNotCacheReplicaRowsForPrimaryReads() throws Exception {
+        primary.update("MERGE INTO users (id, name, email) KEY (id) VALUES (2000002, 'Новое имя', 'l2@routing.ru')");
+        replica.update("MERGE INTO users (id, name, email) KEY (id) VALUES (2000002, 'Старое имя', 'l2@routing.ru')");
+
+        mvc.perform(get("/users/{id}", 2000002))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Старое имя")));
+        mvc.perform(get("/users/{id}", 2000002).header(ConsistencyTokenFilter.TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Новое имя")));
+    }
+
+    private Long id(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class EventBrokerTest {
+    final List<Runnable> tasks = new ArrayList<>();
+    SimpleMeterRegistry meterRegistry;
+    EventBroker broker;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        broker = new EventBroker(tasks::add, meterRegistry, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldDeliverEventsOnlyToTopicSubscribers() {
+        RecordingEmitter booker = subscribe(EventChannel.BOOKINGS, 1L);
+        RecordingEmitter otherUser = subscribe(EventChannel.BOOKINGS, 2L);
+        RecordingEmitter otherChannel = subscribe(EventChannel.ITEM_REQUESTS, 1L);
+
+        broker.publish(EventChannel.BOOKINGS, 1L, "booking-updated", Map.of("id", 5));
+        runTasks();
+
+        assertThat(booker.events).containsExactly("booking-updated");
+        assertThat(otherUser.events).isEmpty();
+        assertThat(otherChannel.events).isEmpty();
+    }
+
+    @Test
+    void shouldDropOldestEventsWhenBufferIsFull() {
+        RecordingEmitter emitter = subscribe(EventChannel.BOOKINGS, 1L);
+
+        for (int i = 1; i <= 5; i++) {
+            broker.publish(EventChannel.BOOKINGS, 1L, "event" + i, Map.of("id", i));
+        }
+        runTasks();
+
+        assertThat(emitter.events).containsExactly("event4", "event5");
+        assertThat(meterRegistry.get("shareit.events.dropped").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRemoveSubscriberWhenSendFails() {
+        RecordingEmitter emitter = subscribe(EventChannel.BOOKINGS, 1L);
+        emitter.failing = true;
+
+        broker.publish(EventChannel.BOOKINGS, 1L, "booking-created", Map.of("id", 1));
+        runTasks();
+        broker.publish(EventChannel.BOOKINGS, 1L, "booking-created", Map.of("id", 2));
+
+        assertThat(tasks).isEmpty();
+        assertThat(meterRegistry.get("shareit.events.subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldDeliverEventsWhileOtherSubscriberIsSlow() throws Exception {
+        EventBroker pooled = new EventBroker(meterRegistry, 2, Duration.ofMinutes(1), 2, 10);
+        try {
+            RecordingEmitter slow = new RecordingEmitter(3);
+            slow.blocker = new CountDownLatch(1);
+            pooled.register(new EventBroker.Topic(EventChannel.BOOKINGS, 1L), slow);
+            RecordingEmitter fast = new RecordingEmitter(1);
+            pooled.register(new EventBroker.Topic(EventChannel.BOOKINGS, 2L), fast);
+
+            pooled.publish(EventChannel.BOOKINGS, 1L, "event1", Map.of("id", 1));
+            assertThat(slow.sending.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 2; i <= 5; i++) {
+                pooled.publish(EventChannel.BOOKINGS, 1L, "event" + i, Map.of("id", i));
+            }
+            pooled.publish(EventChannel.BOOKINGS, 2L, "booking-created", Map.of("id", 1));
+
+            assertThat(fast.sent.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(fast.events).containsExactly("booking-created");
+            assertThat(slow.events).isEmpty();
+
+            slow.blocker.countDown();
+            assertThat(slow.sent.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(slow.events).containsExactly("event1", "event4", "event5");
+        } finally {
+            pooled.shutdown();
+        }
+    }
+
+    private RecordingEmitter subscribe(EventChannel channel, Long userId) {
+        RecordingEmitter emitter = new RecordingEmitter(0);
+        broker.register(new EventBroker.Topic(channel, userId), emitter);
+        return emitter;
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private static final Pattern EVENT_NAME = Pattern.compile("event:(\\S+)");
+
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch sent;
+        CountDownLatch blocker;
+        boolean failing;
+
+        RecordingEmitter(int expectedEvents) {
+            sent = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Соединение закрыто");
+            }
+            sending.countDown();
+            if (blocker != null) {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Отправка прервана", e);
+                }
+            }
+            String text = builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining());
+            Matcher matcher = EVENT_NAME.matcher(text);
+            if (matcher.find()) {
+                events.add(matcher.group(1));
+            }
+            sent.countDown();
+        }
+    }
+}
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -17,10 +18,13 @@ import ru.practicum.shareit.item.dto.ItemDtoRequest;
 
 import java.util.List;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -84,6 +88,28 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.ownerId").value(1));
     }
 
+    @Test
+    void shouldReturnCreatedWhenCreateItems() throws Exception {
+        ItemDtoRequest item4 = ItemDtoRequest.builder()
+                .id(1L)
+                .name("Yandex")
+                .description("YandexPracticum")
+                .available(true)
+                .ownerId(1L)
+                .build();
+
+        when(itemService.createItems(1L, List.of(item1))).thenReturn(List.of(item4));
+
+        mockMvc.perform(post("/items/bulk")
+                        .header("X-Sharer-User-Id", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(item1))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].ownerId").value(1));
+    }
+
     @Test
     void shouldReturnOkWhenUpdateItem() throws Exception {
         when(itemService.updateItem(1L, item1, 1L)).thenReturn(item2);
@@ -115,9 +141,36 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.ownerId").value(1));
     }
 
+    @Test
+    void shouldReturnNotModifiedWhenEtagMatches() throws Exception {
+        when(itemService.getItemById(1L, 1L)).thenReturn(item2);
+
+        String etag = mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items/1")
+                        .header("X-Sharer-User-Id", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void shouldNotAddEtagToItemList() throws Exception {
+        when(itemService.getAllItemsByOwner(1L, 0, null)).thenReturn(List.of(item2, item3));
+
+        mockMvc.perform(get("/items")
+                        .header("X-Sharer-User-Id", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
     @Test
     void shouldReturnOkWhenGetAllItemsByOwner() throws Exception {
-        when(itemService.getAllItemsByOwner(1L)).thenReturn(List.of(item2, item3));
+        when(itemService.getAllItemsByOwner(1L, 0, null)).thenReturn(List.of(item2, item3));
 
         mockMvc.perform(get("/items")
                         .header("X-Sharer-User-Id", 1)
@@ -132,7 +185,7 @@ class ItemControllerTest {
 
     @Test
     void shouldReturnOkWhenSearchItems() throws Exception {
-        when(itemService.searchItems("yandex")).thenReturn(List.of(item2, item3));
+        when(itemService.searchItems("yandex", 0, null)).thenReturn(List.of(item2, item3));
 
         mockMvc.perform(get("/items/search")
                         .param("text", "yandex")
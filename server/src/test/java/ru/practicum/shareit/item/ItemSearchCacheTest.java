@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemSearchCacheTest {
+    SimpleMeterRegistry meterRegistry;
+    ItemSearchCache cache;
+    AtomicInteger loads;
+
+    @BeforeEach
+    void beforeEach() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ItemSearchCache(1000, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void shouldLoadNormalizedQueryOnce() {
+        cache.get("дрель", this::load);
+        cache.get("ДРЕЛЬ", this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldInvalidateOnlyQueriesContainedInChangedText() {
+        cache.get("дрель", this::load);
+        cache.get("палатка", this::load);
+
+        cache.invalidate(List.of("УДАРНАЯ ДРЕЛЬ", ""));
+        cache.get("дрель", this::load);
+        cache.get("палатка", this::load);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void shouldNotCacheResultLoadedDuringInvalidation() {
+        cache.get("дрель", () -> {
+            cache.invalidate(List.of("ДРЕЛЬ"));
+            return load();
+        });
+        cache.get("дрель", this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<ItemSearchHit> load() {
+        loads.incrementAndGet();
+        return List.of(new ItemSearchHit(1L, true, 1));
+    }
+}
\ No newline at end of file
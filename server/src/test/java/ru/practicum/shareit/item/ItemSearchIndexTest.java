@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemSearchIndexTest {
+    ItemSearchIndex index;
+
+    @BeforeEach
+    void beforeEach() {
+        index = new ItemSearchIndex(null, null, new ItemSearchCache(1000, new SimpleMeterRegistry()));
+        index.index(Item.builder().id(1L).name("Дрель").description("Ударная дрель Bosch").available(true).build());
+        index.index(Item.builder().id(2L).name("Палатка").description("Четырёхместная").available(true).build());
+        index.index(Item.builder().id(3L).name("Отвёртка").description("Крестовая").available(false).build());
+    }
+
+    @Test
+    void shouldFindItemsBySubstringIgnoringCase() {
+        assertThat(ids("дрел")).containsExactly(1L);
+        assertThat(ids("bOSC")).containsExactly(1L);
+        assertThat(ids("местн")).containsExactly(2L);
+    }
+
+    @Test
+    void shouldLeaveTextShorterThanTrigramToDatabase() {
+        assertThat(index.supports("др")).isFalse();
+        assertThat(index.supports("дре")).isTrue();
+    }
+
+    @Test
+    void shouldNotMatchWhenAllTrigramsPresentButNotSubstring() {
+        index.index(Item.builder().id(4L).name("ABCD").description("XBCDA").available(true).build());
+
+        assertThat(ids("ABCDA")).isEmpty();
+        assertThat(ids("BCDA")).containsExactly(4L);
+    }
+
+    @Test
+    void shouldSkipUnavailableItems() {
+        assertThat(ids("отвёрт")).isEmpty();
+    }
+
+    @Test
+    void shouldUpdateItemWhenAvailabilityOrTextChanges() {
+        index.index(Item.builder().id(3L).name("Отвёртка").description("Крестовая").available(true).build());
+        index.index(Item.builder().id(1L).name("Перфоратор").description("Ударный").available(true).build());
+
+        assertThat(ids("отвёрт")).containsExactly(3L);
+        assertThat(ids("дрел")).isEmpty();
+        assertThat(ids("ударн")).containsExactly(1L);
+    }
+
+    @Test
+    void shouldLeaveLikePatternsToDatabase() {
+        assertThat(index.supports("дрель")).isTrue();
+        assertThat(index.supports("дре%ль")).isFalse();
+        assertThat(index.supports("дре_ль")).isFalse();
+    }
+
+    @Test
+    void shouldCountNameMatchAndFrequency() {
+        ItemSearchHit hit = index.search("дрель").get(0);
+
+        assertThat(hit.id()).isEqualTo(1L);
+        assertThat(hit.nameMatch()).isTrue();
+        assertThat(hit.frequency()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldApplyChangesOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(Item.builder().id(5L).name("Шуруповёрт").description("Аккумуляторный").available(true)
+                    .build());
+
+            assertThat(ids("шуруп")).isEmpty();
+            assertThat(index.hasUncommittedChanges()).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(ids("шуруп")).containsExactly(5L);
+        assertThat(index.hasUncommittedChanges()).isFalse();
+    }
+
+    private List<Long> ids(String text) {
+        return index.search(text).stream().map(ItemSearchHit::id).sorted().toList();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.item;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Замер поиска на миллионе вещей, запускается отдельно: mvn -pl server test -Pperf
+@Slf4j
+@Tag("perf")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:search-perf")
+@ActiveProfiles("test")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class ItemSearchPerfTest {
+    static final int ITEMS = Integer.getInteger("shareit.perf.items", 1_000_000);
+    static final long FIRST_ID = 10_000_000L;
+    static final int BATCH_SIZE = 10_000;
+    static final List<String> NAMES = List.of("Дрель", "Палатка", "Отвёртка", "Велосипед", "Лестница",
+            "Перфоратор", "Самокат", "Гитара");
+    static final List<String> QUERIES = List.of("ЛЕСТНИЦА", "МОДЕЛЬ 4242", "ГИТАРА 99999", "ОТСУТСТВУЕТ");
+    static final int DATABASE_RUNS = 5;
+    static final int INDEX_RUNS = 200;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemSearchIndex itemSearchIndex;
+
+    @Test
+    void shouldSearchIndexFasterThanDatabase() {
+        jdbcTemplate.update("INSERT INTO users (id, name, email) VALUES (?, 'Владелец', 'owner@perf.ru')", FIRST_ID);
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < ITEMS; i++) {
+            rows.add(new Object[]{FIRST_ID + i, NAMES.get(i % NAMES.size()) + " " + i, "Модель " + i % 10_000});
+            if (rows.size() == BATCH_SIZE || i == ITEMS - 1) {
+                jdbcTemplate.batchUpdate("INSERT INTO items (id, name, description, is_available, owner_id) "
+                        + "VALUES (?, ?, ?, true, " + FIRST_ID + ")", rows);
+                rows.clear();
+            }
+        }
+        long buildStart = System.nanoTime();
+        itemSearchIndex.build();
+        log.info("Индекс по {} вещам построен за {} мс", ITEMS, (System.nanoTime() - buildStart) / 1_000_000);
+
+        for (String query : QUERIES) {
+            assertThat(itemSearchIndex.search(query)).hasSameSizeAs(itemRepository.searchItemsByText(query));
+
+            long[] database = measure(DATABASE_RUNS, query, text -> itemRepository.searchItemsByText(text).size());
+            long[] index = measure(INDEX_RUNS, query, text -> itemSearchIndex.search(text).size());
+            log.info("'{}': база p50 = {} мкс, p99 = {} мкс; индекс p50 = {} мкс, p99 = {} мкс", query,
+                    percentile(database, 50), percentile(database, 99), percentile(index, 50), percentile(index, 99));
+
+            assertThat(percentile(index, 99)).isLessThan(percentile(database, 50));
+        }
+    }
+
+    private static long[] measure(int runs, String query, Function<String, Integer> search) {
+        search.apply(query);
+        long[] micros = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            search.apply(query);
+            micros[i] = (System.nanoTime() - start) / 1_000;
+        }
+        Arrays.sort(micros);
+        return micros;
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ItemSearchRankingTest {
+
+    @Test
+    void shouldOrderByNameMatchThenFrequencyThenBookings() {
+        List<ItemSearchHit> hits = List.of(
+                new ItemSearchHit(1L, false, 5),
+                new ItemSearchHit(2L, true, 1),
+                new ItemSearchHit(3L, true, 2),
+                new ItemSearchHit(4L, true, 1),
+                new ItemSearchHit(5L, true, 1));
+
+        List<Long> ids = ItemSearchRanking.top(hits, Map.of(4L, 3L, 5L, 1L), 0, 10);
+
+        assertThat(ids).containsExactly(3L, 4L, 5L, 2L, 1L);
+    }
+
+    @Test
+    void shouldReturnRequestedPageOfLargeResult() {
+        List<ItemSearchHit> hits = new ArrayList<>();
+        for (long id = 1; id <= 10_000; id++) {
+            hits.add(new ItemSearchHit(id, id % 2 == 0, (int) (id % 7)));
+        }
+        Collections.shuffle(hits);
+
+        List<Long> ids = ItemSearchRanking.top(hits, Map.of(), 3, 4);
+
+        assertThat(ids).containsExactly(48L, 62L, 76L, 90L);
+    }
+
+    @Test
+    void shouldReturnEmptyListWhenPageIsOutOfRange() {
+        assertThat(ItemSearchRanking.top(List.of(new ItemSearchHit(1L, true, 1)), Map.of(), 1, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRankAllHitsWhenSizeIsAbsent() {
+        List<ItemSearchHit> hits = List.of(new ItemSearchHit(1L, false, 1), new ItemSearchHit(2L, true, 1));
+
+        assertThat(ItemSearchRanking.top(hits, Map.of(), 0, null)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldNotOverflowWhenSizeIsMaxInteger() {
+        List<ItemSearchHit> hits = List.of(new ItemSearchHit(1L, false, 1), new ItemSearchHit(2L, true, 1));
+
+        assertThat(ItemSearchRanking.top(hits, Map.of(), 1, Integer.MAX_VALUE)).containsExactly(1L);
+    }
+}
\ No newline at end of file
@@ -1,7 +1,10 @@
 package ru.practicum.shareit.item;
 
+import jakarta.persistence.EntityManager;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoInput;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
@@ -22,6 +27,7 @@ import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,6 +51,9 @@ class ItemServiceImplTest {
     @Autowired
     ItemRequestService itemRequestService;
 
+    @Autowired
+    EntityManager entityManager;
+
     static UserDto user1;
     static UserDto user2;
     static ItemDtoInput item1;
@@ -72,6 +81,47 @@ class ItemServiceImplTest {
         assertThat(item.getRequestId()).isNull();
     }
 
+    @Test
+    void shouldGetItemWithBookingsAndComments() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        BookingDto lastBooking = bookingService.createBooking(user4.getId(), BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .build());
+        bookingService.updateBooking(user3.getId(), lastBooking.getId(), true);
+        BookingDto nextBooking = bookingService.createBooking(user4.getId(), BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+        itemService.createComment(item.getId(), user4.getId(), CommentDto.builder().text("Первый").build());
+        itemService.createComment(item.getId(), user4.getId(), CommentDto.builder().text("Второй").build());
+
+        ItemDto ownerItem = itemService.getItemById(item.getId(), user3.getId());
+        ItemDto bookerItem = itemService.getItemById(item.getId(), user4.getId());
+
+        assertThat(ownerItem.getName()).isEqualTo(item1.getName());
+        assertThat(ownerItem.getLastBooking().getId()).isEqualTo(lastBooking.getId());
+        assertThat(ownerItem.getLastBooking().getStatus()).isEqualTo(BookingStatus.APPROVED);
+        assertThat(ownerItem.getLastBooking().getBooker().getId()).isEqualTo(user4.getId());
+        assertThat(ownerItem.getLastBooking().getItem().getId()).isEqualTo(item.getId());
+        assertThat(ownerItem.getNextBooking().getId()).isEqualTo(nextBooking.getId());
+        assertThat(ownerItem.getNextBooking().getStatus()).isEqualTo(BookingStatus.WAITING);
+        assertThat(ownerItem.getComments()).extracting(CommentDto::getText).containsExactly("Первый", "Второй");
+        assertThat(ownerItem.getComments()).extracting(CommentDto::getAuthorName).containsOnly(user4.getName());
+        assertThat(bookerItem.getLastBooking()).isNull();
+        assertThat(bookerItem.getNextBooking()).isNull();
+        assertThat(bookerItem.getComments()).hasSize(2);
+    }
+
+    @Test
+    void shouldThrowExceptionWhenItemIsNotFound() {
+        assertThatThrownBy(() -> itemService.getItemById(1000L, 1L)).isInstanceOf(NotFoundException.class);
+    }
+
     @Test
     void shouldCreateItemWithRequest() {
         UserDto user3 = userService.createUser(user1);
@@ -176,7 +226,7 @@ class ItemServiceImplTest {
         itemService.createItem(user3.getId(), item1);
         ItemDtoRequest item = itemService.createItem(user3.getId(), item2);
 
-        List<ItemDto> items = itemService.getAllItemsByOwner(user3.getId()).stream().toList();
+        List<ItemDto> items = itemService.getAllItemsByOwner(user3.getId(), 0, 10).stream().toList();
 
         assertThat(items).hasSize(2);
         assertThat(items.get(1).getId()).isEqualTo(item.getId());
@@ -186,13 +236,90 @@ class ItemServiceImplTest {
         assertThat(items.get(1).getOwnerId()).isEqualTo(user3.getId());
     }
 
+    @Test
+    void shouldGetItemsByOwnerPage() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest first = itemService.createItem(user3.getId(), item1);
+        ItemDtoRequest second = itemService.createItem(user3.getId(), item2);
+        itemService.createItem(user3.getId(), item1);
+        LocalDateTime now = LocalDateTime.now();
+        createApprovedBooking(user3, user4, first, now.minusDays(2), now.minusDays(1));
+        BookingDto booking = createApprovedBooking(user3, user4, second, now.minusDays(2), now.minusDays(1));
+
+        List<ItemDto> items = itemService.getAllItemsByOwner(user3.getId(), 1, 1).stream().toList();
+
+        assertThat(items).extracting(ItemDto::getId).containsExactly(second.getId());
+        assertThat(items.get(0).getLastBooking().getId()).isEqualTo(booking.getId());
+        assertThatThrownBy(() -> itemService.getAllItemsByOwner(user3.getId(), -1, 10))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void shouldCreateItemsInBatches() {
+        UserDto user3 = userService.createUser(user1);
+        List<ItemDtoInput> dtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            dtos.add(ItemDtoInput.builder().name("Item" + i).description("Bulk").available(true).build());
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class)
+                .getStatistics();
+        entityManager.flush();
+        statistics.clear();
+
+        List<ItemDtoRequest> items = itemService.createItems(user3.getId(), dtos);
+
+        assertThat(items).hasSize(120);
+        assertThat(items).extracting(ItemDtoRequest::getId).doesNotHaveDuplicates();
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(10);
+        assertThat(itemService.getAllItemsByOwner(user3.getId(), 0, 200)).hasSize(120);
+        assertThat(itemService.getAllItemsByOwner(user3.getId(), 0, null)).hasSize(120);
+        assertThat(itemService.searchItems("item119", 0, 10)).hasSize(1);
+    }
+
+    @Test
+    void shouldNotCreateItemsWhenRequestIsNotFound() {
+        UserDto user3 = userService.createUser(user1);
+        ItemDtoInput item = ItemDtoInput.builder().name("Yandex").description("Yandex").available(true)
+                .requestId(1000L).build();
+
+        assertThatThrownBy(() -> itemService.createItems(user3.getId(), List.of(item1, item)))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void shouldGetItemsByOwnerWithLastAndNextBookings() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        ItemDtoRequest otherItem = itemService.createItem(user3.getId(), item2);
+        LocalDateTime now = LocalDateTime.now();
+        BookingDto pastBooking = createApprovedBooking(user3, user4, item, now.minusDays(3), now.minusDays(2));
+        createApprovedBooking(user3, user4, item, now.minusHours(1), now.plusHours(1));
+        BookingDto nextBooking = createApprovedBooking(user3, user4, item, now.plusDays(1), now.plusDays(2));
+        createApprovedBooking(user3, user4, item, now.plusDays(3), now.plusDays(4));
+        createApprovedBooking(user3, user4, otherItem, now.minusDays(5), now.minusDays(4));
+        itemService.createComment(item.getId(), user4.getId(), CommentDto.builder().text("Первый").build());
+        itemService.createComment(otherItem.getId(), user4.getId(), CommentDto.builder().text("Второй").build());
+
+        List<ItemDto> items = itemService.getAllItemsByOwner(user3.getId(), 0, 10).stream().toList();
+
+        assertThat(items).extracting(ItemDto::getId).containsExactly(item.getId(), otherItem.getId());
+        assertThat(items.get(0).getLastBooking().getId()).isEqualTo(pastBooking.getId());
+        assertThat(items.get(0).getNextBooking().getId()).isEqualTo(nextBooking.getId());
+        assertThat(items.get(0).getComments()).extracting(CommentDto::getText).containsExactly("Первый");
+        assertThat(items.get(1).getLastBooking()).isNotNull();
+        assertThat(items.get(1).getNextBooking()).isNull();
+        assertThat(items.get(1).getComments()).extracting(CommentDto::getText).containsExactly("Второй");
+    }
+
     @Test
     void shouldSearchItems() {
         UserDto user3 = userService.createUser(user1);
         itemService.createItem(user3.getId(), item1);
         ItemDtoRequest item = itemService.createItem(user3.getId(), item2);
 
-        List<ItemDto> items = itemService.searchItems("yandex").stream().toList();
+        List<ItemDto> items = itemService.searchItems("yandex", 0, 10).stream().toList();
 
         assertThat(items).hasSize(2);
         assertThat(items.get(1).getId()).isEqualTo(item.getId());
@@ -202,9 +329,47 @@ class ItemServiceImplTest {
         assertThat(items.get(1).getOwnerId()).isEqualTo(user3.getId());
     }
 
+    @Test
+    void shouldRankSearchResultsAndReturnPage() {
+        UserDto user3 = userService.createUser(user1);
+        UserDto user4 = userService.createUser(user2);
+        ItemDtoRequest inDescription = itemService.createItem(user3.getId(), ItemDtoInput.builder()
+                .name("Перфоратор").description("Лучше, чем дрель").available(true).build());
+        ItemDtoRequest inName = itemService.createItem(user3.getId(), ItemDtoInput.builder()
+                .name("Дрель").description("Ударная").available(true).build());
+        ItemDtoRequest twice = itemService.createItem(user3.getId(), ItemDtoInput.builder()
+                .name("Дрель").description("Дрель-шуруповёрт").available(true).build());
+        ItemDtoRequest booked = itemService.createItem(user3.getId(), ItemDtoInput.builder()
+                .name("Дрель").description("Аккумуляторная").available(true).build());
+        bookingService.createBooking(user4.getId(), BookingDtoInput.builder()
+                .itemId(booked.getId())
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .build());
+
+        List<Long> ids = itemService.searchItems("дрель", 0, 10).stream().map(ItemDto::getId).toList();
+        List<Long> page = itemService.searchItems("дрель", 1, 2).stream().map(ItemDto::getId).toList();
+        List<Long> all = itemService.searchItems("дрель", 0, null).stream().map(ItemDto::getId).toList();
+
+        assertThat(ids).containsExactly(twice.getId(), booked.getId(), inName.getId(), inDescription.getId());
+        assertThat(page).containsExactly(booked.getId(), inName.getId());
+        assertThat(all).isEqualTo(ids);
+    }
+
+    @Test
+    void shouldNotSearchItemAfterItBecomesUnavailable() {
+        UserDto user3 = userService.createUser(user1);
+        ItemDtoRequest item = itemService.createItem(user3.getId(), item1);
+        assertThat(itemService.searchItems("practicum", 0, 10)).hasSize(1);
+
+        itemService.updateItem(item.getId(), ItemDtoInput.builder().available(false).build(), user3.getId());
+
+        assertThat(itemService.searchItems("practicum", 0, 10)).isEmpty();
+    }
+
     @Test
     void shouldReturnEmptyListWhenSearchItemsTextIsBlank() {
-        List<ItemDto> items = itemService.searchItems("").stream().toList();
+        List<ItemDto> items = itemService.searchItems("", 0, 10).stream().toList();
 
         assertThat(items).isEmpty();
     }
@@ -245,4 +410,14 @@ class ItemServiceImplTest {
         assertThatThrownBy(() -> itemService.createComment(item.getId(), user3.getId(), comment))
                 .isInstanceOf(ValidationException.class);
     }
+
+    private BookingDto createApprovedBooking(UserDto owner, UserDto booker, ItemDtoRequest item,
+                                             LocalDateTime start, LocalDateTime end) {
+        BookingDto booking = bookingService.createBooking(booker.getId(), BookingDtoInput.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build());
+        return bookingService.updateBooking(owner.getId(), booking.getId(), true);
+    }
 }
\ No newline at end of file
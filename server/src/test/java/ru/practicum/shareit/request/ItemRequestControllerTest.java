@@ -10,16 +10,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.item.dto.ItemDtoRequest;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInput;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemRequestController.class)
@@ -108,11 +114,14 @@ class ItemRequestControllerTest {
 
         List<ItemRequestDto> requests = List.of(itemRequest2);
 
-        when(itemRequestService.getAllItemRequests()).thenReturn(requests);
+        when(itemRequestService.getAllItemRequests(2L, 0, null, null))
+                .thenReturn(KeysetPage.<ItemRequestDto>builder().content(requests).nextCursor("cursor").build());
 
         mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", 2)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(KeysetPage.NEXT_CURSOR_HEADER, "cursor"))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].description").value("YandexPracticum"))
                 .andExpect(jsonPath("$[0].requestorId").value(1));
@@ -150,4 +159,32 @@ class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.items[0].available").value(true))
                 .andExpect(jsonPath("$.items[0].ownerId").value(1));
     }
+
+    @Test
+    void shouldStreamItemRequestAnswers() throws Exception {
+        ItemDtoRequest answer = ItemDtoRequest.builder()
+                .id(1L)
+                .name("Yandex")
+                .description("YandexPracticum")
+                .available(true)
+                .ownerId(2L)
+                .requestId(1L)
+                .build();
+        SseEmitter emitter = new SseEmitter();
+        when(itemRequestService.subscribe(1L)).thenReturn(emitter);
+
+        var result = mockMvc.perform(get("/requests/stream")
+                        .header("X-Sharer-User-Id", 1)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("item-request-answer").data(answer, MediaType.APPLICATION_JSON));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:item-request-answer")))
+                .andExpect(content().string(containsString(objectMapper.writeValueAsString(answer))));
+    }
 }
\ No newline at end of file
@@ -10,12 +10,15 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dto.ItemDtoInput;
+import ru.practicum.shareit.pagination.KeysetPage;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDtoInput;
 import ru.practicum.shareit.user.UserService;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,6 +36,9 @@ class ItemRequestServiceImplTest {
     @Autowired
     ItemRequestService itemRequestService;
 
+    @Autowired
+    ItemService itemService;
+
     static UserDto user1;
     static ItemDtoInput item1;
     static ItemRequestDtoInput itemRequest1;
@@ -84,13 +90,61 @@ class ItemRequestServiceImplTest {
     @Test
     void shouldGetAllItemRequests() {
         UserDto user = userService.createUser(user1);
+        UserDto other = userService.createUser(UserDto.builder().name("Other").email("other@practicum.ru").build());
         ItemRequestDto itemRequest = itemRequestService.createItemRequest(user.getId(), itemRequest1);
 
-        List<ItemRequestDto> itemRequests = itemRequestService.getAllItemRequests().stream().toList();
+        List<ItemRequestDto> itemRequests = itemRequestService.getAllItemRequests(other.getId(), 0, 10, null)
+                .getContent();
 
         assertThat(itemRequests).hasSize(1);
         assertThat(itemRequests.getFirst().getId()).isEqualTo(itemRequest.getId());
         assertThat(itemRequests.getFirst().getDescription()).isEqualTo(itemRequest.getDescription());
         assertThat(itemRequests.getFirst().getRequestorId()).isEqualTo(itemRequest.getRequestorId());
+        assertThat(itemRequestService.getAllItemRequests(user.getId(), 0, 10, null).getContent()).isEmpty();
+    }
+
+    @Test
+    void shouldGetAllItemRequestsByCursorWithAnswers() {
+        UserDto user = userService.createUser(user1);
+        UserDto other = userService.createUser(UserDto.builder().name("Other").email("other@practicum.ru").build());
+        ItemRequestDto oldest = itemRequestService.createItemRequest(user.getId(), itemRequest1);
+        ItemRequestDto middle = itemRequestService.createItemRequest(user.getId(), itemRequest1);
+        ItemRequestDto newest = itemRequestService.createItemRequest(user.getId(), itemRequest1);
+        itemService.createItem(other.getId(), ItemDtoInput.builder().name("Yandex").description("YandexPracticum")
+                .available(true).requestId(oldest.getId()).build());
+
+        KeysetPage<ItemRequestDto> first = itemRequestService.getAllItemRequests(other.getId(), 0, 2, null);
+        KeysetPage<ItemRequestDto> second = itemRequestService.getAllItemRequests(other.getId(), 0, 2,
+                first.getNextCursor());
+
+        assertThat(first.getContent()).extracting(ItemRequestDto::getId)
+                .containsExactly(newest.getId(), middle.getId());
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(second.getContent()).extracting(ItemRequestDto::getId).containsExactly(oldest.getId());
+        assertThat(second.getContent().getFirst().getItems()).hasSize(1);
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(itemRequestService.getAllItemRequests(other.getId(), 0, null, null).getContent())
+                .extracting(ItemRequestDto::getId)
+                .containsExactly(newest.getId(), middle.getId(), oldest.getId());
+    }
+
+    @Test
+    void shouldStreamSameItemRequestsAsPagedList() {
+        UserDto user = userService.createUser(user1);
+        UserDto other = userService.createUser(UserDto.builder().name("Other").email("other@practicum.ru").build());
+        ItemRequestDto answered = itemRequestService.createItemRequest(user.getId(), itemRequest1);
+        itemRequestService.createItemRequest(user.getId(), itemRequest1);
+        itemRequestService.createItemRequest(other.getId(), itemRequest1);
+        itemService.createItem(other.getId(), ItemDtoInput.builder().name("Yandex").description("YandexPracticum")
+                .available(true).requestId(answered.getId()).build());
+        List<ItemRequestDto> streamed = new ArrayList<>();
+
+        itemRequestService.streamAllItemRequests(other.getId(), streamed::add);
+
+        assertThat(streamed).isEqualTo(itemRequestService.getAllItemRequests(other.getId(), 0, null, null)
+                .getContent());
+        assertThat(streamed).hasSize(2);
+        assertThat(streamed).filteredOn(itemRequest -> itemRequest.getId().equals(answered.getId()))
+                .singleElement().satisfies(itemRequest -> assertThat(itemRequest.getItems()).hasSize(1));
     }
 }
\ No newline at end of file
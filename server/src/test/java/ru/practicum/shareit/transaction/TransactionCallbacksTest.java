@@ -0,0 +1,67 @@
+package ru.practicum.shareit.transaction;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class TransactionCallbacksTest {
+    final List<String> calls = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void afterEach() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void shouldUndoChangesInReverseOrderOnRollback() {
+        TransactionCallbacks.onRollback(() -> calls.add("undo create"));
+        TransactionCallbacks.afterCommit(() -> calls.add("publish"));
+        TransactionCallbacks.onRollback(() -> calls.add("undo update"));
+        TransactionCallbacks.afterCompletion(() -> calls.add("invalidate"));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(calls).containsExactly("undo update", "undo create", "invalidate");
+    }
+
+    @Test
+    void shouldRunCommitCallbacksInOrderOnCommit() {
+        TransactionCallbacks.onRollback(() -> calls.add("undo create"));
+        TransactionCallbacks.afterCommit(() -> calls.add("first"));
+        TransactionCallbacks.afterCommit(() -> calls.add("second"));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(calls).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldRunCommitCallbackImmediatelyWithoutTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionCallbacks.afterCommit(() -> calls.add("publish"));
+        TransactionCallbacks.onRollback(() -> calls.add("undo"));
+
+        assertThat(calls).containsExactly("publish");
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(status));
+    }
+}
\ No newline at end of file
@@ -13,11 +13,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(UserController.class)
@@ -58,6 +63,29 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[1].email").value("yandex@practicum.ru"));
     }
 
+    @Test
+    void shouldStreamAllUsersAsNdjson() throws Exception {
+        user1.setId(2L);
+
+        doAnswer(invocation -> {
+            Consumer<UserDto> action = invocation.getArgument(0);
+            action.accept(user2);
+            action.accept(user1);
+            return null;
+        }).when(userService).streamAllUsers(any());
+
+        var result = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(objectMapper.writeValueAsString(user2) + "\n"
+                        + objectMapper.writeValueAsString(user1) + "\n"));
+    }
+
     @Test
     void shouldReturnCreatedWhenCreateUser() throws Exception {
         user2 = UserDto.builder().id(1L).name("Yandex").email("yandex@practicum.ru").build();
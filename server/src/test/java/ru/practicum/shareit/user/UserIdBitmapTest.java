@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class UserIdBitmapTest {
+    UserIdBitmap bitmap;
+
+    @BeforeEach
+    void beforeEach() {
+        bitmap = new UserIdBitmap(null);
+    }
+
+    @Test
+    void shouldAddAndDeleteIds() {
+        bitmap.add(1L);
+        bitmap.add(70_000L);
+        bitmap.add(Long.MAX_VALUE);
+        bitmap.delete(70_000L);
+
+        assertThat(bitmap.contains(1L)).isTrue();
+        assertThat(bitmap.contains(Long.MAX_VALUE)).isTrue();
+        assertThat(bitmap.contains(70_000L)).isFalse();
+        assertThat(bitmap.contains(2L)).isFalse();
+        assertThat(bitmap.cardinality()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldSwitchBetweenArrayAndBitmapContainers() {
+        for (long id = 0; id < 10_000; id += 2) {
+            bitmap.add(id);
+        }
+        for (long id = 0; id < 10_000; id += 4) {
+            bitmap.delete(id);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(2_500);
+        assertThat(bitmap.contains(2L)).isTrue();
+        assertThat(bitmap.contains(4L)).isFalse();
+        assertThat(bitmap.contains(9_998L)).isTrue();
+    }
+
+    @Test
+    void shouldKeepTenMillionIdsCompact() {
+        for (long id = 1; id <= 10_000_000; id++) {
+            bitmap.add(id);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(10_000_000);
+        assertThat(bitmap.contains(10_000_000L)).isTrue();
+        assertThat(bitmap.contains(10_000_001L)).isFalse();
+        assertThat(bitmap.sizeInBytes()).isLessThan(2 * 1024 * 1024);
+    }
+}
\ No newline at end of file
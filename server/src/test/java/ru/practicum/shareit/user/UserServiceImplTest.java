@@ -1,5 +1,6 @@
 package ru.practicum.shareit.user;
 
+import jakarta.persistence.EntityManager;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import org.junit.jupiter.api.BeforeAll;
@@ -13,6 +14,7 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,6 +29,15 @@ class UserServiceImplTest {
     @Autowired
     UserService userService;
 
+    @Autowired
+    UserCache userCache;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    UserRepository userRepository;
+
     static UserDto user1;
     static UserDto user2;
 
@@ -47,6 +58,58 @@ class UserServiceImplTest {
         assertThat(users.get(1).getEmail()).isEqualTo(newUser.getEmail());
     }
 
+    @Test
+    void shouldStreamAllUsersInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            ids.add(userService.createUser(UserDto.builder()
+                    .name("Yandex" + i)
+                    .email("yandex" + i + "@stream.ru")
+                    .build()).getId());
+        }
+        List<Long> streamedIds = new ArrayList<>();
+
+        userService.streamAllUsers(user -> streamedIds.add(user.getId()));
+
+        assertThat(streamedIds).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void shouldRefreshCachedUserAfterUpdate() {
+        UserDto user = userService.createUser(user1);
+        assertThat(userCache.get(user.getId())).get().extracting(User::getName).isEqualTo(user1.getName());
+
+        userService.updateUser(user.getId(), UserDto.builder().name("Practicum").build());
+
+        assertThat(userCache.get(user.getId())).get().extracting(User::getName).isEqualTo("Practicum");
+    }
+
+    @Test
+    void shouldReturnCachedUserFromCallerSession() {
+        UserDto user = userService.createUser(user1);
+        userCache.get(user.getId());
+        entityManager.clear();
+
+        assertThat(userCache.get(user.getId())).get().matches(entityManager::contains);
+    }
+
+    @Test
+    void shouldFindUserMissingFromBitmap() {
+        User user = userRepository.save(User.builder().name("Другой экземпляр").email("other@practicum.ru").build());
+
+        assertThat(userService.getUserById(user.getId()).getName()).isEqualTo("Другой экземпляр");
+    }
+
+    @Test
+    void shouldEvictCachedUserAfterDelete() {
+        UserDto user = userService.createUser(user1);
+        assertThat(userCache.get(user.getId())).isPresent();
+
+        userService.deleteUser(user.getId());
+
+        assertThat(userCache.get(user.getId())).isEmpty();
+    }
+
     @Test
     void shouldCreateAndGetUser() {
         UserDto user = userService.createUser(user1);